@@ -0,0 +1,363 @@
+package Agents;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Vision.DetectionBatch;
+import Vision.PriorityLanes;
+import Vision.TrackDeltaFilter;
+
+// Format binaire versionné des lots de détections (contenu ACL en séquence d'octets, ontologie "detection").
+// Les types ne circulent pas en texte à chaque image: chaque flux leur attribue une clé et envoie les noms
+// dans un dictionnaire, une seule fois (nouvelles entrées) ou en entier à la demande d'un récepteur qui
+// rencontre une clé inconnue (REQUEST, ontologie "detection-dictionary", contenu: numéro du flux).
+//
+// Version 2, entiers non signés en varint (7 bits par octet, poids faibles d'abord), champs fixes en gros-boutiste:
+//   u8 0xD7, u8 version, u8 drapeaux (bit 0: dictionnaire complet, bit 1: image clé, bit 2: voie urgente)
+//   varint époque (change à chaque démarrage de l'agent), varint flux, varint séquence, varint horodatage (ms)
+//   varint nombre d'entrées, puis par entrée: varint clé, varint longueur, nom en UTF-8
+//   varint nombre de pistes apparues, puis par détection (13 octets en général):
+//     varint clé de classe, varint zigzag écart de piste (avec la piste précédente du message, -1 au départ),
+//     i16 x, i16 y, u16 largeur, u16 hauteur, u16 distance en mm (0xFFFF: inconnue), u8 confiance (x255)
+//   varint nombre de pistes modifiées, puis une détection chacune (même forme)
+//   varint nombre de pistes perdues, puis varint zigzag écart de piste pour chacune
+// Une image clé porte toutes les pistes en cours (apparues + modifiées): le récepteur oublie les autres.
+// Chaque voie de priorité part dans son propre message; une image clé est toujours sur la voie courante.
+// La version 1 (une seule section de détections, sans pistes perdues) reste lue.
+final class DetectionCodec {
+
+    static final String ONTOLOGY = "detection";
+    static final String DICTIONARY_ONTOLOGY = "detection-dictionary";
+    static final int MAGIC = 0xD7;
+    static final int VERSION = 2;
+
+    private static final int FLAG_FULL_DICTIONARY = 1;
+    private static final int FLAG_KEYFRAME = 2;
+    private static final int FLAG_URGENT = 4;
+    private static final int UNKNOWN_DISTANCE = 0xFFFF;
+    private static final long DICTIONARY_REQUEST_INTERVAL_MS = 1000;
+
+    private DetectionCodec() {
+    }
+
+    // Encodage d'un flux de l'agent de vision (thread de publication du flux)
+    static final class Encoder {
+        private final int epoch;
+        private final int stream;
+        private final Map<String, Integer> keys = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int announcedCount = 0;                    // Entrées déjà envoyées
+        private volatile boolean fullDictionaryRequested = true;
+
+        // Tampon réutilisé d'un lot à l'autre
+        private byte[] buffer = new byte[256];
+        private int position;
+        private int previousTrack;
+        private int[] classKeys = new int[16];
+
+        Encoder(int epoch, int stream) {
+            this.epoch = epoch;
+            this.stream = stream;
+        }
+
+        // Joindre le dictionnaire complet au prochain lot (demande d'un récepteur, appelée depuis tout thread)
+        void requestFullDictionary() {
+            fullDictionaryRequested = true;
+        }
+
+        // Encoder les événements d'une voie calculés par le filtre de publication
+        byte[] encode(DetectionBatch batch, TrackDeltaFilter events, int lane) {
+            int count = batch.size();
+            if (classKeys.length < count) {
+                classKeys = new int[Math.max(count, classKeys.length * 2)];
+            }
+            // Clés des types (les nouveaux types entrent dans le dictionnaire)
+            for (int i = 0; i < count; i++) {
+                String type = batch.getType(i);
+                Integer key = keys.get(type);
+                if (key == null) {
+                    key = names.size();
+                    keys.put(type, key);
+                    names.add(type);
+                }
+                classKeys[i] = key;
+            }
+
+            boolean full = fullDictionaryRequested;
+            fullDictionaryRequested = false;
+            int firstEntry = full ? 0 : announcedCount;
+
+            position = 0;
+            writeByte(MAGIC);
+            writeByte(VERSION);
+            boolean urgent = lane == PriorityLanes.URGENT;
+            writeByte((full ? FLAG_FULL_DICTIONARY : 0)
+                    | (events.isKeyframe() && !urgent ? FLAG_KEYFRAME : 0)
+                    | (urgent ? FLAG_URGENT : 0));
+            writeVarint(epoch);
+            writeVarint(stream);
+            writeVarint(Math.max(0, batch.getFrameSequence()));
+            writeVarint(batch.getCaptureTimestamp());
+
+            writeVarint(names.size() - firstEntry);
+            for (int key = firstEntry; key < names.size(); key++) {
+                byte[] name = names.get(key).getBytes(StandardCharsets.UTF_8);
+                writeVarint(key);
+                writeVarint(name.length);
+                ensureCapacity(name.length);
+                System.arraycopy(name, 0, buffer, position, name.length);
+                position += name.length;
+            }
+            announcedCount = names.size();
+
+            previousTrack = -1;
+            writeVarint(events.getAppearedCount(lane));
+            for (int k = 0; k < events.getAppearedCount(lane); k++) {
+                writeDetection(batch, events.getAppeared(lane, k));
+            }
+            writeVarint(events.getUpdatedCount(lane));
+            for (int k = 0; k < events.getUpdatedCount(lane); k++) {
+                writeDetection(batch, events.getUpdated(lane, k));
+            }
+            writeVarint(events.getLostCount(lane));
+            for (int k = 0; k < events.getLostCount(lane); k++) {
+                int trackId = events.getLostTrackId(lane, k);
+                writeVarint(zigzag(trackId - previousTrack));
+                previousTrack = trackId;
+            }
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void writeDetection(DetectionBatch batch, int i) {
+            int trackId = batch.getTrackId(i);
+            writeVarint(classKeys[i]);
+            writeVarint(zigzag(trackId - previousTrack));
+            previousTrack = trackId;
+            writeShort(clamp(batch.getX(i), Short.MIN_VALUE, Short.MAX_VALUE));
+            writeShort(clamp(batch.getY(i), Short.MIN_VALUE, Short.MAX_VALUE));
+            writeShort(clamp(batch.getWidth(i), 0, 0xFFFF));
+            writeShort(clamp(batch.getHeight(i), 0, 0xFFFF));
+            writeShort(encodeDistance(batch.getDistance(i)));
+            writeByte(clamp(Math.round(batch.getConfidence(i) * 255f), 0, 255));
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeShort(int value) {
+            ensureCapacity(2);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeVarint(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(position + extra, buffer.length * 2));
+            }
+        }
+    }
+
+    // Réception des événements décodés
+    interface Listener {
+        // Piste apparue, ou modifiée / republiée par une image clé (appeared false).
+        // Distance en cm, infinie si inconnue; type null si la clé n'est pas encore dans le dictionnaire.
+        void detection(boolean appeared, String type, int trackId, int x, int y, int width, int height,
+                       double distance, double confidence);
+
+        void lost(int trackId);
+    }
+
+    // Décodage côté récepteur (thread de l'agent); un dictionnaire par agent émetteur et par flux
+    static final class Decoder {
+        private static class Dictionary {
+            int epoch = -1;
+            final Map<Integer, String> names = new HashMap<>();
+            long lastRequestTime = 0;
+        }
+
+        private final Map<String, Dictionary> dictionaries = new HashMap<>();
+        private int stream;
+        private long frameSequence;
+        private long captureTimestamp;
+        private boolean keyframe;
+        private boolean urgent;
+        private int unknownCount;
+        private boolean dictionaryWanted;
+
+        private byte[] data;
+        private int position;
+        private int previousTrack;
+
+        // Décoder un lot; retourne le nombre de détections (apparues et modifiées).
+        // IllegalArgumentException si le contenu n'est pas dans un format connu
+        int decode(byte[] content, String sender, Listener listener) {
+            data = content;
+            position = 0;
+            if (content == null || content.length < 3 || readByte() != MAGIC) {
+                throw new IllegalArgumentException("format de détections inconnu");
+            }
+            int version = readByte();
+            if (version > VERSION) {
+                throw new IllegalArgumentException("version de format non prise en charge: " + version);
+            }
+            int flags = readByte();
+            keyframe = (flags & FLAG_KEYFRAME) != 0;
+            urgent = (flags & FLAG_URGENT) != 0;
+            int epoch = (int) readVarint();
+            stream = (int) readVarint();
+            frameSequence = readVarint();
+            captureTimestamp = readVarint();
+
+            Dictionary dictionary = dictionaries.computeIfAbsent(sender + "/" + stream, k -> new Dictionary());
+            if (dictionary.epoch != epoch || (flags & FLAG_FULL_DICTIONARY) != 0) {
+                // Agent redémarré ou dictionnaire complet: repartir de zéro
+                dictionary.names.clear();
+                dictionary.epoch = epoch;
+            }
+            int entries = (int) readVarint();
+            for (int e = 0; e < entries; e++) {
+                int key = (int) readVarint();
+                int length = (int) readVarint();
+                checkAvailable(length);
+                dictionary.names.put(key, new String(data, position, length, StandardCharsets.UTF_8));
+                position += length;
+            }
+
+            // Version 1: une seule section, lue comme des pistes apparues
+            unknownCount = 0;
+            previousTrack = -1;
+            int count = readDetections(dictionary, true, listener);
+            if (version >= 2) {
+                count += readDetections(dictionary, false, listener);
+                int lost = (int) readVarint();
+                for (int k = 0; k < lost; k++) {
+                    previousTrack += unzigzag(readVarint());
+                    listener.lost(previousTrack);
+                }
+            }
+
+            // Clé inconnue (récepteur arrivé en cours de route): redemander le dictionnaire, au plus une fois par seconde
+            long now = System.currentTimeMillis();
+            dictionaryWanted = unknownCount > 0 && now - dictionary.lastRequestTime >= DICTIONARY_REQUEST_INTERVAL_MS;
+            if (dictionaryWanted) {
+                dictionary.lastRequestTime = now;
+            }
+            data = null;
+            return count;
+        }
+
+        private int readDetections(Dictionary dictionary, boolean appeared, Listener listener) {
+            int count = (int) readVarint();
+            for (int i = 0; i < count; i++) {
+                int key = (int) readVarint();
+                previousTrack += unzigzag(readVarint());
+                int x = (short) readShort();
+                int y = (short) readShort();
+                int width = readShort();
+                int height = readShort();
+                int distance = readShort();
+                int confidence = readByte();
+
+                String type = dictionary.names.get(key);
+                if (type == null) unknownCount++;
+                listener.detection(appeared, type, previousTrack, x, y, width, height,
+                        distance == UNKNOWN_DISTANCE ? Double.POSITIVE_INFINITY : distance / 10.0,
+                        confidence / 255.0);
+            }
+            return count;
+        }
+
+        int getStream() {
+            return stream;
+        }
+
+        // Le dernier lot était une image clé: les pistes absentes du lot sont terminées
+        boolean isKeyframe() {
+            return keyframe;
+        }
+
+        // Le dernier lot venait de la voie urgente
+        boolean isUrgent() {
+            return urgent;
+        }
+
+        long getFrameSequence() {
+            return frameSequence;
+        }
+
+        long getCaptureTimestamp() {
+            return captureTimestamp;
+        }
+
+        int getUnknownCount() {
+            return unknownCount;
+        }
+
+        // Le dernier lot contenait des clés inconnues et le dictionnaire doit être redemandé à l'émetteur
+        boolean isDictionaryWanted() {
+            return dictionaryWanted;
+        }
+
+        private int readByte() {
+            checkAvailable(1);
+            return data[position++] & 0xFF;
+        }
+
+        private int readShort() {
+            checkAvailable(2);
+            int value = ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+            position += 2;
+            return value;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("varint invalide");
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || position + length > data.length) {
+                throw new IllegalArgumentException("lot de détections tronqué");
+            }
+        }
+    }
+
+    private static int encodeDistance(double distanceCm) {
+        if (Double.isNaN(distanceCm) || Double.isInfinite(distanceCm) || distanceCm < 0) return UNKNOWN_DISTANCE;
+        long millimetres = Math.round(distanceCm * 10);
+        return millimetres >= UNKNOWN_DISTANCE ? UNKNOWN_DISTANCE - 1 : (int) millimetres;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
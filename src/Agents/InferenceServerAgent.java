@@ -0,0 +1,251 @@
+package Agents;
+
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+import jade.lang.acl.MessageTemplate;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Vision.Detector;
+import Vision.DetectorFactory;
+import Vision.InferenceBatcher;
+import Vision.MatPool;
+import Vision.ModelRegistry;
+import Vision.NonMaxSuppression;
+
+// Serveur d'inférence partagé par les agents de capture d'une plateforme.
+// Les agents de vision lancés avec "inference=remote" envoient leurs images (JPEG) en REQUEST;
+// le serveur les regroupe par modèle en lots dynamiques (taille maximale / attente maximale),
+// exécute un seul forward par lot et renvoie à chaque demandeur ses détections en INFORM.
+// Un seul réseau par modèle pour toute la machine: le débit par cœur augmente avec le nombre de caméras.
+public class InferenceServerAgent extends Agent {
+
+    // Protocole (repris par RemoteDetector)
+    public static final String SERVICE_TYPE = "inference-server";
+    public static final String ONTOLOGY = "inference";
+    public static final String MODEL_PARAMETER = "model";          // "faces" ou "objects"
+    public static final String THRESHOLD_PARAMETER = "threshold";  // Seuil de confiance de la requête
+    public static final String RESULTS_PREFIX = "RESULTATS:";
+
+    private static final int DEFAULT_MAX_BATCH = 8;
+    private static final int DEFAULT_MAX_WAIT_MS = 10;
+    private static final int DEFAULT_QUEUE_CAPACITY = 32;
+    private static final int MODEL_WARMUP_ITERATIONS = 2;
+    private static final float DEFAULT_NMS_IOU_THRESHOLD = 0.45f;
+    private static final int DEFAULT_NMS_TOP_K = 100;
+    private static final long STATS_PERIOD_MS = 10000;
+
+    private final Map<String, String> agentOptions = new HashMap<>();
+    private final Map<String, InferenceBatcher> batchers = new LinkedHashMap<>();
+    private boolean registered = false;
+
+    @Override
+    protected void setup() {
+        System.out.println("Serveur d'inférence démarré: " + getLocalName());
+        parseArguments();
+
+        try {
+            System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        } catch (UnsatisfiedLinkError e) {
+            System.err.println("⚠️ Bibliothèque OpenCV introuvable: " + e.getMessage());
+            doDelete();
+            return;
+        }
+
+        int maxBatch = getIntOption("batch.max", DEFAULT_MAX_BATCH);
+        int maxWaitMs = getIntOption("batch.wait_ms", DEFAULT_MAX_WAIT_MS);
+        int capacity = getIntOption("batch.queue", DEFAULT_QUEUE_CAPACITY);
+        loadModel("faces", maxBatch, maxWaitMs, capacity);
+        loadModel("objects", maxBatch, maxWaitMs, capacity);
+        if (batchers.isEmpty()) {
+            System.err.println("⚠️ Aucun modèle chargé, arrêt du serveur d'inférence");
+            doDelete();
+            return;
+        }
+
+        registerInDF();
+        addBehaviour(new InferenceRequestBehaviour());
+        addBehaviour(new TickerBehaviour(this, STATS_PERIOD_MS) {
+            @Override
+            protected void onTick() {
+                for (InferenceBatcher batcher : batchers.values()) {
+                    System.out.println("Serveur d'inférence: " + batcher);
+                }
+                System.out.println(MatPool.getStatistics());
+                System.out.println(ModelRegistry.getStatistics());
+            }
+        });
+    }
+
+    private void parseArguments() {
+        Object[] args = getArguments();
+        if (args == null) return;
+
+        for (Object arg : args) {
+            if (arg == null) continue;
+            String option = arg.toString();
+            int separator = option.indexOf('=');
+            if (separator > 0) {
+                agentOptions.put(option.substring(0, separator).trim(), option.substring(separator + 1).trim());
+            } else {
+                System.err.println("⚠️ Argument ignoré (format attendu cle=valeur): " + option);
+            }
+        }
+    }
+
+    private int getIntOption(String key, int defaultValue) {
+        String value = agentOptions.get(key);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Valeur invalide pour " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    // Charger un modèle (mêmes options que l'agent de vision) et son regroupement en lots.
+    // Les exports ONNX à taille de lot figée demandent "<modele>.batch.max=1".
+    private void loadModel(String model, int maxBatch, int maxWaitMs, int capacity) {
+        try {
+            Detector detector = DetectorFactory.create(
+                    model.equals("faces") ? ModelOptions.faces(agentOptions) : ModelOptions.objects(agentOptions),
+                    MODEL_WARMUP_ITERATIONS);
+            batchers.put(model, new InferenceBatcher(model, detector, getIntOption(model + ".batch.max", maxBatch),
+                    maxWaitMs, capacity, DEFAULT_NMS_IOU_THRESHOLD, DEFAULT_NMS_TOP_K));
+            System.out.println("✅ Modèle " + model + " chargé");
+        } catch (Exception e) {
+            System.err.println("⚠️ Impossible de charger le modèle " + model + ": " + e.getMessage());
+        }
+    }
+
+    private void registerInDF() {
+        try {
+            DFAgentDescription dfd = new DFAgentDescription();
+            dfd.setName(getAID());
+
+            ServiceDescription sd = new ServiceDescription();
+            sd.setType(SERVICE_TYPE);
+            sd.setName("inference-service");
+            dfd.addServices(sd);
+
+            DFService.register(this, dfd);
+            registered = true;
+            System.out.println("Agent " + getLocalName() + " enregistré dans le DF comme '" + SERVICE_TYPE + "'");
+        } catch (FIPAException e) {
+            System.err.println("Erreur lors de l'enregistrement au DF: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Requêtes d'inférence: décodage de l'image sur le thread de l'agent, puis file du modèle.
+    // La réponse est envoyée par le thread du lot dès que le forward est terminé.
+    private class InferenceRequestBehaviour extends CyclicBehaviour {
+        private final MessageTemplate template = MessageTemplate.and(
+                MessageTemplate.MatchPerformative(ACLMessage.REQUEST), MessageTemplate.MatchOntology(ONTOLOGY));
+
+        @Override
+        public void action() {
+            ACLMessage msg = myAgent.receive(template);
+            if (msg == null) {
+                block();
+                return;
+            }
+
+            ACLMessage reply = msg.createReply();
+            InferenceBatcher batcher = batchers.get(msg.getUserDefinedParameter(MODEL_PARAMETER));
+            if (batcher == null || !msg.hasByteSequenceContent()) {
+                reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
+                reply.setContent("ERREUR:modèle inconnu " + msg.getUserDefinedParameter(MODEL_PARAMETER));
+                myAgent.send(reply);
+                return;
+            }
+
+            float threshold;
+            try {
+                threshold = Float.parseFloat(msg.getUserDefinedParameter(THRESHOLD_PARAMETER));
+            } catch (NullPointerException | NumberFormatException e) {
+                threshold = 0.5f;
+            }
+
+            MatOfByte buffer = new MatOfByte(msg.getByteSequenceContent());
+            Mat frame = MatPool.register(Imgcodecs.imdecode(buffer, Imgcodecs.IMREAD_COLOR));
+            buffer.release();
+            if (frame.empty()) {
+                MatPool.release(frame);
+                reply.setPerformative(ACLMessage.NOT_UNDERSTOOD);
+                reply.setContent("ERREUR:image illisible");
+                myAgent.send(reply);
+                return;
+            }
+
+            if (!batcher.submit(frame, threshold, new ReplyCallback(reply))) {
+                MatPool.release(frame);
+                reply.setPerformative(ACLMessage.FAILURE);
+                reply.setContent("ERREUR:serveur saturé");
+                myAgent.send(reply);
+            }
+        }
+    }
+
+    // Renvoyer les détections conservées au demandeur: "RESULTATS:classe,score,x,y,largeur,hauteur;..."
+    private class ReplyCallback implements InferenceBatcher.Callback {
+        private final ACLMessage reply;
+
+        ReplyCallback(ACLMessage reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public void completed(Detector detector, NonMaxSuppression results, int keptCount) {
+            StringBuilder content = new StringBuilder(RESULTS_PREFIX);
+            for (int k = 0; k < keptCount; k++) {
+                int i = results.getKept(k);
+                if (k > 0) content.append(';');
+                content.append(results.getClassId(i)).append(',').append(results.getScore(i)).append(',')
+                        .append(results.getX(i)).append(',').append(results.getY(i)).append(',')
+                        .append(results.getWidth(i)).append(',').append(results.getHeight(i));
+            }
+            reply.setPerformative(ACLMessage.INFORM);
+            reply.setContent(content.toString());
+            send(reply);
+        }
+
+        @Override
+        public void failed(String reason) {
+            reply.setPerformative(ACLMessage.FAILURE);
+            reply.setContent("ERREUR:" + reason);
+            send(reply);
+        }
+    }
+
+    @Override
+    protected void takeDown() {
+        if (registered) {
+            try {
+                DFService.deregister(this);
+            } catch (FIPAException e) {
+                e.printStackTrace();
+            }
+        }
+
+        for (InferenceBatcher batcher : batchers.values()) {
+            batcher.close();
+            batcher.getDetector().close();
+        }
+        System.out.println("Serveur d'inférence terminé: " + getLocalName());
+    }
+}
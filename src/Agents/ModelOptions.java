@@ -0,0 +1,52 @@
+package Agents;
+
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+
+import java.util.Map;
+
+import Vision.ModelSpec;
+import Vision.OutputDecoder;
+
+// Description des modèles de visages et d'objets d'après les options "cle=valeur" d'un agent.
+// Partagée par l'agent de vision et le serveur d'inférence: mêmes fichiers et réglages par défaut.
+final class ModelOptions {
+
+    private ModelOptions() {
+    }
+
+    static ModelSpec faces(Map<String, String> options) {
+        return build(options, "faces", OutputDecoder.SSD,
+                "models/res10_300x300_ssd_iter_140000.caffemodel", "models/deploy.prototxt", "models/face.names",
+                300, 1.0, new Scalar(104.0, 177.0, 123.0), false);
+    }
+
+    static ModelSpec objects(Map<String, String> options) {
+        return build(options, "objects", OutputDecoder.YOLO,
+                "models/yolov4.weights", "models/yolov4.cfg", "models/coco_fr.names",
+                416, 1.0 / 255.0, new Scalar(0, 0, 0), true);
+    }
+
+    // Options reconnues pour un modèle: <prefixe>.model, .config, .names, .size, .backend et .decoder
+    // (ex: "objects.model=models/yolov5s.onnx", "objects.size=640", "objects.backend=opencv/cpu",
+    // "objects.decoder=ssd" ou le nom d'un décodeur enregistré par DetectorFactory.register)
+    private static ModelSpec build(Map<String, String> options, String prefix, OutputDecoder decoder,
+                                   String defaultModel, String defaultConfig, String defaultNames, int defaultSize,
+                                   double scale, Scalar mean, boolean swapRB) {
+        int size = defaultSize;
+        String sizeOption = options.get(prefix + ".size");
+        if (sizeOption != null) {
+            try {
+                size = Integer.parseInt(sizeOption.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("⚠️ Valeur invalide pour " + prefix + ".size: " + sizeOption);
+            }
+        }
+        return new ModelSpec(prefix, options.getOrDefault(prefix + ".decoder", decoder.key()),
+                options.getOrDefault(prefix + ".model", defaultModel),
+                options.getOrDefault(prefix + ".config", defaultConfig),
+                options.getOrDefault(prefix + ".names", defaultNames))
+                .withInput(new Size(size, size), scale, mean, swapRB)
+                .withBackend(options.get(prefix + ".backend"));
+    }
+}
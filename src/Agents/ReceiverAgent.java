@@ -18,9 +18,15 @@ import java.awt.geom.AffineTransform;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 public class ReceiverAgent extends Agent {
 
+    // Protocole des détections (repris par AgentVisionCognitif)
+    public static final String DETECTION_PREFIX = "DETECTION:";  // Une détection: DETECTION:type:distance:confiance
+    public static final String BATCH_PREFIX = "DETECTIONS:";     // Lot d'une image: DETECTIONS:sequence:horodatage
+
     // Constantes UI
     private static final String WINDOW_TITLE = "Agent Récepteur - Analyse d'Objets";
     private static final int WINDOW_WIDTH = 800;
@@ -39,13 +45,16 @@ public class ReceiverAgent extends Agent {
     private JScrollPane logScrollPane;
     private JComboBox<String> objectFilterCombo;
     private JPanel objectCardsPanel;
-    private Map<String, JPanel> objectCardMap = new HashMap<>();
+    private Map<String, JPanel> objectCardMap = new ConcurrentHashMap<>();
 
-    // Données
-    private Map<String, DetectionData> detectionDataMap = new HashMap<>();
-    private List<String> detectionLog = new ArrayList<>();
-    private int totalDetections = 0;
-    private Set<String> uniqueObjectTypes = new TreeSet<>();
+    // Données: modifiées par le thread de l'agent à chaque événement, parcourues par l'interface (copies)
+    private Map<String, DetectionData> detectionDataMap = new ConcurrentHashMap<>();
+    private List<String> detectionLog = Collections.synchronizedList(new ArrayList<>());
+    private volatile int totalDetections = 0; // Détections apparues (écrit par le seul thread de l'agent)
+    private Set<String> uniqueObjectTypes = new ConcurrentSkipListSet<>();
+    private final DetectionCodec.Decoder detectionDecoder = new DetectionCodec.Decoder();
+    private final Map<String, String> trackObjects = new HashMap<>(); // Piste émettrice -> objet affiché
+    private final BinaryEventHandler binaryEvents = new BinaryEventHandler();
 
     // Graphiques
     private SimpleBarChart distanceChart;
@@ -368,15 +377,17 @@ public class ReceiverAgent extends Agent {
 
     private void updateObjectCards() {
         SwingUtilities.invokeLater(() -> {
-            // Vider le panneau de cartes
+            // Vider le panneau de cartes (et oublier celles des objets perdus)
             objectCardsPanel.removeAll();
+            Map<String, DetectionData> detections = new HashMap<>(detectionDataMap);
+            objectCardMap.keySet().retainAll(detections.keySet());
 
             // Obtenir le filtre actuel
             String filter = (String) objectFilterCombo.getSelectedItem();
             if (filter == null) filter = "Tous les objets";
 
             // Ajouter une carte pour chaque détection
-            for (Map.Entry<String, DetectionData> entry : detectionDataMap.entrySet()) {
+            for (Map.Entry<String, DetectionData> entry : detections.entrySet()) {
                 DetectionData data = entry.getValue();
 
                 // Appliquer le filtre
@@ -588,15 +599,16 @@ public class ReceiverAgent extends Agent {
             }
 
             // Mettre à jour le graphique des distances
+            List<DetectionData> detections = new ArrayList<>(detectionDataMap.values());
             Map<String, Double> distanceData = new HashMap<>();
-            for (DetectionData data : detectionDataMap.values()) {
+            for (DetectionData data : detections) {
                 distanceData.put(data.type, data.distance);
             }
             distanceChart.updateData(distanceData);
 
             // Mettre à jour le graphique des types d'objets
             Map<String, Integer> typeCountMap = new HashMap<>();
-            for (DetectionData data : detectionDataMap.values()) {
+            for (DetectionData data : detections) {
                 typeCountMap.put(data.type, typeCountMap.getOrDefault(data.type, 0) + 1);
             }
             objectTypeChart.updateData(typeCountMap);
@@ -641,58 +653,176 @@ public class ReceiverAgent extends Agent {
                 try {
                     // Traiter le message si c'est une détection
                     if (msg.getPerformative() == ACLMessage.INFORM) {
-                        String content = msg.getContent();
-                        processDetectionMessage(content, msg.getSender().getLocalName());
+                        if (msg.hasByteSequenceContent() && DetectionCodec.ONTOLOGY.equals(msg.getOntology())) {
+                            processBinaryDetections(msg);
+                        } else {
+                            String content = msg.getContent();
+                            processDetectionMessage(content, msg.getSender().getLocalName());
+                        }
                     }
                 } catch (Exception e) {
                     System.err.println("Erreur lors du traitement du message: " + e.getMessage());
                     e.printStackTrace();
                 }
+                acknowledge(msg);
             } else {
                 block(); // Bloquer jusqu'à réception d'un nouveau message
             }
         }
     }
 
-    private void processDetectionMessage(String content, String sender) {
+    // Contrôle de flux de l'émetteur: une fois le lot traité, rendre les crédits demandés (reply-with)
+    private void acknowledge(ACLMessage msg) {
+        if (msg.getPerformative() != ACLMessage.INFORM || msg.getReplyWith() == null) return;
+        ACLMessage credit = msg.createReply();
+        credit.setPerformative(ACLMessage.INFORM);
+        credit.setOntology(ReceiverOutbox.CREDIT_ONTOLOGY);
+        credit.setContent(msg.getReplyWith());
+        send(credit);
+    }
+
+    // Lot au format binaire (DetectionCodec): événements des pistes d'une image, une seule mise à jour de l'interface
+    private void processBinaryDetections(ACLMessage msg) {
+        String sender = msg.getSender().getLocalName();
+        byte[] content = msg.getByteSequenceContent();
+        binaryEvents.begin(sender, msg.getSender().getName());
         try {
-            // Format reçu: DETECTION:type:distance:confidence
-            System.out.println("Message reçu: " + content);
+            long start = System.nanoTime();
+            int count = detectionDecoder.decode(content, msg.getSender().getName(), binaryEvents);
+            long decodeNanos = System.nanoTime() - start;
+            if (detectionDecoder.isKeyframe()) {
+                binaryEvents.endKeyframe();
+            }
+            System.out.println(String.format("Lot reçu de %s: image %d%s%s, %d détection(s), %d octets, décodage %.1f µs",
+                    sender, detectionDecoder.getFrameSequence(), detectionDecoder.isKeyframe() ? " (image clé)" : "",
+                    detectionDecoder.isUrgent() ? " (urgent)" : "",
+                    count, content.length, decodeNanos / 1000.0));
+
+            // Récepteur arrivé en cours de route: demander les noms des classes à l'émetteur
+            if (detectionDecoder.isDictionaryWanted()) {
+                ACLMessage request = new ACLMessage(ACLMessage.REQUEST);
+                request.addReceiver(msg.getSender());
+                request.setOntology(DetectionCodec.DICTIONARY_ONTOLOGY);
+                request.setContent(String.valueOf(detectionDecoder.getStream()));
+                send(request);
+                System.out.println("Dictionnaire des classes demandé à " + sender
+                        + " (" + detectionDecoder.getUnknownCount() + " détection(s) de classe inconnue)");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Lot de détections illisible de " + sender + ": " + e.getMessage());
+        }
 
-            // Diviser sur les deux-points au lieu du point-virgule
-            String[] parts = content.split(":");
+        updateUI(binaryEvents.logEntries.toString());
+    }
 
-            if (parts.length >= 4 && parts[0].equals("DETECTION")) {
-                String objectType = parts[1].trim();
+    // Application des événements d'un lot binaire: une carte par piste, retirée quand la piste est perdue.
+    // Seules les apparitions et les pertes sont journalisées; les modifications mettent les cartes à jour.
+    private class BinaryEventHandler implements DetectionCodec.Listener {
+        final StringBuilder logEntries = new StringBuilder();
+        private final Set<String> seenTracks = new HashSet<>();
+        private String sender;
+        private String senderName;
+
+        void begin(String sender, String senderName) {
+            this.sender = sender;
+            this.senderName = senderName;
+            logEntries.setLength(0);
+            seenTracks.clear();
+        }
 
-                // Remplacer la virgule par un point pour les nombres décimaux
-                double distance = Double.parseDouble(parts[2].trim().replace(',', '.'));
-                double confidence = Double.parseDouble(parts[3].trim().replace(',', '.'));
+        // Piste d'un émetteur et d'un flux: "agent@plateforme/flux#piste"
+        private String trackKey(int trackId) {
+            return senderName + "/" + detectionDecoder.getStream() + "#" + trackId;
+        }
 
-                // Créer un ID unique pour cette détection
-                String objectId = objectType + "-" + Math.abs(content.hashCode() % 1000);
+        @Override
+        public void detection(boolean appeared, String type, int trackId, int x, int y, int width, int height,
+                              double distance, double confidence) {
+            if (type == null) return; // Classe inconnue tant que le dictionnaire n'est pas reçu
+            long captureTime = detectionDecoder.getCaptureTimestamp();
+            if (trackId < 0) {
+                // Détection sans piste: traitée comme une détection isolée
+                appendLog(recordDetection(type, type + "-" + Math.abs((x * 31 + y) % 1000), distance, confidence,
+                        sender, captureTime));
+                return;
+            }
 
-                // Stocker ou mettre à jour les données de détection
-                DetectionData data = new DetectionData(objectType, distance, confidence);
-                detectionDataMap.put(objectId, data);
+            String key = trackKey(trackId);
+            seenTracks.add(key);
+            // Les pistes de chaque flux sont numérotées à partir des mêmes identifiants: l'objet affiché porte
+            // l'émetteur et le flux, pour que deux flux ne partagent (ni ne se retirent) jamais une carte
+            String objectId = type + "-" + key;
+            String previous = trackObjects.put(key, objectId);
+            if (previous != null && !previous.equals(objectId)) {
+                detectionDataMap.remove(previous); // Classe de la piste corrigée
+            }
+            if (appeared || previous == null) {
+                appendLog(recordDetection(type, objectId, distance, confidence, sender, captureTime));
+            } else {
+                storeDetection(type, objectId, distance, confidence);
+            }
+        }
 
-                // Ajouter le type d'objet à l'ensemble des types uniques
-                uniqueObjectTypes.add(objectType);
+        @Override
+        public void lost(int trackId) {
+            String objectId = trackObjects.remove(trackKey(trackId));
+            if (objectId == null) return;
+            detectionDataMap.remove(objectId);
+            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+            appendLog(String.format("[%s] %s a perdu %s", sdf.format(new Date(detectionDecoder.getCaptureTimestamp())),
+                    sender, objectId));
+        }
 
-                // Mettre à jour le compteur de détections
-                totalDetections++;
+        // Image clé: les pistes de ce flux absentes du lot sont terminées
+        void endKeyframe() {
+            String prefix = senderName + "/" + detectionDecoder.getStream() + "#";
+            Iterator<Map.Entry<String, String>> tracks = trackObjects.entrySet().iterator();
+            while (tracks.hasNext()) {
+                Map.Entry<String, String> track = tracks.next();
+                if (track.getKey().startsWith(prefix) && !seenTracks.contains(track.getKey())) {
+                    detectionDataMap.remove(track.getValue());
+                    tracks.remove();
+                }
+            }
+        }
 
-                // Ajouter au journal
-                SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
-                String logEntry = String.format("[%s] %s a détecté %s à %.1f cm (confiance: %.1f%%)",
-                        sdf.format(new Date()), sender, objectType, distance, confidence * 100);
-                detectionLog.add(logEntry);
+        // Les entrées de la voie urgente sont signalées
+        private void appendLog(String logEntry) {
+            if (logEntries.length() > 0) logEntries.append('\n');
+            if (detectionDecoder.isUrgent()) logEntries.append("⚠️ ");
+            logEntries.append(logEntry);
+        }
+    }
 
-                // Mettre à jour l'interface utilisateur
-                updateUI(logEntry);
+    private void processDetectionMessage(String content, String sender) {
+        try {
+            System.out.println("Message reçu: " + content);
+
+            // Lot d'une image: "DETECTIONS:sequence:horodatage" puis une ligne par détection,
+            // dépouillé en une seule fois avec une seule mise à jour de l'interface
+            if (content.startsWith(BATCH_PREFIX)) {
+                String[] lines = content.split("\n");
+                String[] header = lines[0].split(":");
+                long captureTime = header.length >= 3 ? Long.parseLong(header[2].trim()) : System.currentTimeMillis();
+
+                StringBuilder logEntries = new StringBuilder();
+                for (int i = 1; i < lines.length; i++) {
+                    String logEntry = recordDetection(lines[i], sender, captureTime);
+                    if (logEntry != null) {
+                        if (logEntries.length() > 0) logEntries.append('\n');
+                        logEntries.append(logEntry);
+                    }
+                }
+                if (logEntries.length() > 0) {
+                    updateUI(logEntries.toString());
+                }
+                return;
+            }
 
-                // Débogage
-                System.out.println("Log ajouté: " + logEntry);
+            // Ancien format, une détection par message
+            String logEntry = recordDetection(content, sender, System.currentTimeMillis());
+            if (logEntry != null) {
+                updateUI(logEntry);
             }
         } catch (Exception e) {
             System.err.println("Erreur lors du traitement du message de détection: " + e.getMessage());
@@ -700,6 +830,55 @@ public class ReceiverAgent extends Agent {
         }
     }
 
+    // Enregistrer une détection; retourne l'entrée du journal, ou null si la ligne n'en est pas une
+    private String recordDetection(String line, String sender, long captureTime) {
+        // Format reçu: DETECTION:type:distance:confidence
+        // Diviser sur les deux-points au lieu du point-virgule
+        String[] parts = line.split(":");
+
+        if (parts.length >= 4 && parts[0].equals("DETECTION")) {
+            String objectType = parts[1].trim();
+
+            // Remplacer la virgule par un point pour les nombres décimaux
+            double distance = Double.parseDouble(parts[2].trim().replace(',', '.'));
+            double confidence = Double.parseDouble(parts[3].trim().replace(',', '.'));
+
+            // Créer un ID unique pour cette détection
+            String objectId = objectType + "-" + Math.abs(line.hashCode() % 1000);
+
+            return recordDetection(objectType, objectId, distance, confidence, sender, captureTime);
+        }
+        return null;
+    }
+
+    // Stocker une détection (texte ou binaire) et retourner son entrée de journal
+    private String recordDetection(String objectType, String objectId, double distance, double confidence,
+                                   String sender, long captureTime) {
+        storeDetection(objectType, objectId, distance, confidence);
+
+        // Compter la détection (les simples mises à jour de piste ne passent pas par ici)
+        totalDetections++;
+
+        // Ajouter au journal (heure de capture de l'image)
+        SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+        String logEntry = String.format("[%s] %s a détecté %s à %.1f cm (confiance: %.1f%%)",
+                sdf.format(new Date(captureTime)), sender, objectType, distance, confidence * 100);
+        detectionLog.add(logEntry);
+
+        // Débogage
+        System.out.println("Log ajouté: " + logEntry);
+        return logEntry;
+    }
+
+    private void storeDetection(String objectType, String objectId, double distance, double confidence) {
+        // Stocker ou mettre à jour les données de détection
+        DetectionData data = new DetectionData(objectType, distance, confidence);
+        detectionDataMap.put(objectId, data);
+
+        // Ajouter le type d'objet à l'ensemble des types uniques
+        uniqueObjectTypes.add(objectType);
+    }
+
     private void updateUI(String logEntry) {
         SwingUtilities.invokeLater(() -> {
             // Mettre à jour les cartes d'objets
@@ -711,8 +890,10 @@ public class ReceiverAgent extends Agent {
             // Mettre à jour les statistiques
             updateStatistics();
 
-            // Ajouter l'entrée au journal
-            logArea.append(logEntry + "\n");
+            // Ajouter l'entrée au journal (rien pour un lot de simples mises à jour)
+            if (!logEntry.isEmpty()) {
+                logArea.append(logEntry + "\n");
+            }
 
             // Défiler automatiquement vers le bas
             logArea.setCaretPosition(logArea.getDocument().getLength());
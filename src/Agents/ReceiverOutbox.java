@@ -0,0 +1,307 @@
+package Agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Vision.DropPolicy;
+import Vision.LatencyHistogram;
+
+// File d'envoi bornée d'un agent récepteur, vidée par son propre thread: un récepteur lent ou distant
+// (MTP HTTP) ne bloque plus le thread de publication du pipeline, ni les autres récepteurs.
+// File pleine: politique DropPolicy (COALESCE_LATEST remplace le message en attente de même clé, par
+// exemple même flux et même voie, dès l'entrée). Un message retiré de la file appelle son 'onDrop'
+// (l'agent de vision y demande une image clé pour que le récepteur se resynchronise).
+//
+// Contrôle de flux par crédits: au plus 'credits' messages envoyés et non acquittés. L'émetteur demande un
+// acquittement (reply-with: numéro du message) tous les credits/2 messages et sur le dernier crédit; le
+// récepteur répond après traitement (INFORM, ontologie "detection-credit", contenu: ce numéro), ce qui
+// acquitte tous les messages jusqu'à lui. Sans acquittement pendant CREDIT_TIMEOUT_MS, les crédits sont
+// rendus; un récepteur qui n'a jamais acquitté (ancienne version) est servi sans contrôle de flux.
+final class ReceiverOutbox {
+
+    static final String CREDIT_ONTOLOGY = "detection-credit";
+    private static final long CREDIT_TIMEOUT_MS = 2000;
+
+    private static class Outgoing {
+        final String key;
+        final ACLMessage message;
+        final long since;                 // Origine de la latence d'envoi (capture)
+        final LatencyHistogram latency;   // Latence d'envoi de la voie, peut être null
+        final Runnable onDrop;            // Peut être null
+        final long enqueuedAt = System.currentTimeMillis();
+
+        Outgoing(String key, ACLMessage message, long since, LatencyHistogram latency, Runnable onDrop) {
+            this.key = key;
+            this.message = message;
+            this.since = since;
+            this.latency = latency;
+            this.onDrop = onDrop;
+        }
+    }
+
+    private final Agent agent;
+    private final AID receiver;
+    private final int capacity;
+    private final DropPolicy policy;
+    private final long blockMs;
+    private final int credits;   // 0: sans contrôle de flux
+    private final int ackEvery;
+
+    // File et numérotation protégées par le moniteur de l'instance
+    private final ArrayDeque<Outgoing> queue = new ArrayDeque<>();
+    private long sentSequence = 0;
+    private long ackedSequence = 0;
+    private boolean flowControl;
+    private long creditWaitStart = 0;
+
+    private volatile boolean running = false;
+    private Thread worker;
+
+    // Compteurs d'activité du récepteur
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong stallCount = new AtomicLong();     // Crédits épuisés
+    private final AtomicLong timeoutCount = new AtomicLong();   // Crédits rendus faute d'acquittement
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+
+    ReceiverOutbox(Agent agent, AID receiver, int capacity, DropPolicy policy, long blockMs, int credits) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacité de la file d'envoi doit être >= 1");
+        }
+        this.agent = agent;
+        this.receiver = receiver;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.blockMs = blockMs;
+        this.credits = Math.max(0, credits);
+        this.ackEvery = Math.max(1, this.credits / 2);
+        this.flowControl = this.credits > 0;
+    }
+
+    void start() {
+        if (running) return;
+        running = true;
+        worker = new Thread(this::runLoop, "envoi-" + receiver.getLocalName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void stop() {
+        running = false;
+        synchronized (this) {
+            notifyAll();
+        }
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        synchronized (this) {
+            droppedCount.addAndGet(queue.size());
+            queue.clear();
+        }
+    }
+
+    // Déposer un message pour ce récepteur (thread de publication). Retourne false s'il a été rejeté.
+    boolean offer(String key, ACLMessage message, long since, LatencyHistogram latency, Runnable onDrop) {
+        Outgoing item = new Outgoing(key, message, since, latency, onDrop);
+        Outgoing removed = null;
+        boolean accepted = true;
+        synchronized (this) {
+            if (!running) {
+                removed = item;
+                accepted = false;
+            } else if (policy == DropPolicy.COALESCE_LATEST && (removed = removeKey(key)) != null) {
+                coalescedCount.incrementAndGet();
+                queue.addLast(item);
+            } else if (queue.size() < capacity) {
+                queue.addLast(item);
+            } else {
+                switch (policy) {
+                    case BLOCK:
+                        // Attente bornée: un récepteur bloqué ne doit pas arrêter le pipeline
+                        long deadline = System.currentTimeMillis() + blockMs;
+                        long remaining;
+                        try {
+                            while (running && queue.size() >= capacity
+                                    && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                                wait(remaining);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        if (running && queue.size() < capacity) {
+                            queue.addLast(item);
+                        } else {
+                            removed = item;
+                            accepted = false;
+                        }
+                        break;
+
+                    case DROP_NEWEST:
+                        removed = item;
+                        accepted = false;
+                        break;
+
+                    case DROP_OLDEST:
+                    case COALESCE_LATEST:
+                    default:
+                        removed = queue.pollFirst();
+                        queue.addLast(item);
+                        break;
+                }
+                if (removed != null) droppedCount.incrementAndGet();
+            }
+            notifyAll();
+        }
+        if (removed != null && removed.onDrop != null) {
+            try {
+                removed.onDrop.run();
+            } catch (Exception e) {
+                System.err.println("Erreur lors du rejet d'un message pour " + receiver.getLocalName() + ": " + e.getMessage());
+            }
+        }
+        return accepted;
+    }
+
+    private Outgoing removeKey(String key) {
+        Iterator<Outgoing> pending = queue.iterator();
+        while (pending.hasNext()) {
+            Outgoing item = pending.next();
+            if (item.key.equals(key)) {
+                pending.remove();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Acquittement du récepteur: tous les messages jusqu'à 'sequence' ont été traités (thread de l'agent)
+    synchronized void acknowledge(long sequence) {
+        if (sequence <= ackedSequence || sequence > sentSequence) return;
+        ackedSequence = sequence;
+        if (!flowControl && credits > 0) {
+            flowControl = true;
+            System.out.println("✅ " + receiver.getLocalName() + " acquitte: contrôle de flux rétabli");
+        }
+        notifyAll();
+    }
+
+    private void runLoop() {
+        while (running) {
+            Outgoing item;
+            synchronized (this) {
+                try {
+                    while (running && (queue.isEmpty() || !hasCredit())) {
+                        wait(100);
+                    }
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (!running) break;
+                item = queue.pollFirst();
+                long sequence = ++sentSequence;
+                if (flowControl && (sequence % ackEvery == 0 || sequence - ackedSequence >= credits)) {
+                    item.message.setReplyWith(Long.toString(sequence));
+                }
+                notifyAll(); // Place libérée pour un producteur en attente (BLOCK)
+            }
+
+            try {
+                agent.send(item.message);
+                long now = System.currentTimeMillis();
+                queueLatency.record(now - item.enqueuedAt);
+                if (item.latency != null) {
+                    item.latency.record(now - item.since);
+                }
+                sentCount.incrementAndGet();
+            } catch (Exception e) {
+                System.err.println("Erreur lors de l'envoi du message à " + receiver.getLocalName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Appelée sous le moniteur
+    private boolean hasCredit() {
+        if (!flowControl || sentSequence - ackedSequence < credits) {
+            creditWaitStart = 0;
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (creditWaitStart == 0) {
+            creditWaitStart = now;
+            stallCount.incrementAndGet();
+            return false;
+        }
+        if (now - creditWaitStart < CREDIT_TIMEOUT_MS) {
+            return false;
+        }
+
+        // Aucun acquittement à temps: acquittements perdus ou récepteur sans contrôle de flux
+        creditWaitStart = 0;
+        timeoutCount.incrementAndGet();
+        if (ackedSequence == 0) {
+            flowControl = false;
+            System.err.println("⚠️ " + receiver.getLocalName() + " n'acquitte pas ses messages: contrôle de flux désactivé");
+        } else {
+            System.err.println("⚠️ Pas d'acquittement de " + receiver.getLocalName() + " depuis "
+                    + CREDIT_TIMEOUT_MS + " ms: crédits rendus");
+        }
+        ackedSequence = sentSequence;
+        return true;
+    }
+
+    AID getReceiver() {
+        return receiver;
+    }
+
+    synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    // Messages envoyés en attente d'acquittement
+    synchronized long getInFlight() {
+        return flowControl ? sentSequence - ackedSequence : 0;
+    }
+
+    // Âge du plus ancien message en file (ms)
+    synchronized long getLagMs() {
+        Outgoing oldest = queue.peekFirst();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.enqueuedAt;
+    }
+
+    long getSentCount() {
+        return sentCount.get();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    // "r1[file=2/16, en vol=3/8, retard=40 ms, envoyés=120, rejetés=1, fusionnés=9, crédits épuisés=2, expirés=0, attente: n=..]"
+    @Override
+    public String toString() {
+        return String.format("%s[file=%d/%d, en vol=%s, retard=%d ms, envoyés=%d, rejetés=%d, fusionnés=%d, crédits épuisés=%d, expirés=%d, attente: %s]",
+                receiver.getLocalName(), getQueueSize(), capacity,
+                credits == 0 ? "-" : getInFlight() + "/" + credits, getLagMs(),
+                getSentCount(), getDroppedCount(), getCoalescedCount(), stallCount.get(), timeoutCount.get(), queueLatency);
+    }
+}
@@ -0,0 +1,179 @@
+package Agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.lang.acl.ACLMessage;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Vision.Detector;
+import Vision.MatPool;
+import Vision.ModelSession;
+import Vision.NonMaxSuppression;
+
+// Détecteur délégué à un serveur d'inférence (InferenceServerAgent).
+// L'image est encodée en JPEG et envoyée en REQUEST; le thread du pool attend la réponse INFORM,
+// que le comportement de réception de l'agent remet à l'instance par son identifiant de conversation.
+// Une instance n'a qu'une requête en vol: le nombre d'instances du pool fixe donc le nombre d'images
+// qu'un agent peut faire entrer dans les lots du serveur.
+class RemoteDetector implements Detector {
+
+    private final Agent agent;
+    private final AID server;
+    private final String model;
+    private final String conversationId;
+    private final List<String> classNames;
+    private final long timeoutMs;
+    private final MatOfInt encodeParams;
+
+    private final ArrayBlockingQueue<ACLMessage> replies = new ArrayBlockingQueue<>(1);
+    private volatile String pendingRequest;
+    private long requestCount = 0;
+
+    private final MatOfByte encoded = MatPool.register(new MatOfByte());
+    private final AtomicLong roundTripNanos = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile long parseNanos = 0;
+
+    RemoteDetector(Agent agent, AID server, String model, String conversationId, List<String> classNames,
+                   long timeoutMs, int jpegQuality) {
+        this.agent = agent;
+        this.server = server;
+        this.model = model;
+        this.conversationId = conversationId;
+        this.classNames = classNames;
+        this.timeoutMs = timeoutMs;
+        this.encodeParams = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, jpegQuality);
+    }
+
+    String getConversationId() {
+        return conversationId;
+    }
+
+    // Réponse du serveur (thread de l'agent); les réponses arrivées après expiration sont ignorées
+    void deliver(ACLMessage reply) {
+        String expected = pendingRequest;
+        if (expected != null && expected.equals(reply.getInReplyTo())) {
+            replies.offer(reply);
+        }
+    }
+
+    @Override
+    public void detect(Mat frame, float threshold, NonMaxSuppression candidates) {
+        candidates.reset();
+        if (!Imgcodecs.imencode(".jpg", frame, encoded, encodeParams)) {
+            failedCount.incrementAndGet();
+            return;
+        }
+
+        ACLMessage request = new ACLMessage(ACLMessage.REQUEST);
+        request.addReceiver(server);
+        request.setOntology(InferenceServerAgent.ONTOLOGY);
+        request.setConversationId(conversationId);
+        String requestId = conversationId + "-" + (++requestCount);
+        request.setReplyWith(requestId);
+        request.addUserDefinedParameter(InferenceServerAgent.MODEL_PARAMETER, model);
+        request.addUserDefinedParameter(InferenceServerAgent.THRESHOLD_PARAMETER, Float.toString(threshold));
+        request.setByteSequenceContent(encoded.toArray());
+
+        replies.clear();
+        pendingRequest = requestId;
+        long start = System.nanoTime();
+        ACLMessage reply;
+        try {
+            agent.send(request);
+            reply = replies.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            pendingRequest = null;
+        }
+
+        if (reply == null || reply.getPerformative() != ACLMessage.INFORM) {
+            failedCount.incrementAndGet();
+            return;
+        }
+        roundTripNanos.addAndGet(System.nanoTime() - start);
+        completedCount.incrementAndGet();
+
+        long parseStart = System.nanoTime();
+        parseResults(reply.getContent(), candidates);
+        parseNanos += System.nanoTime() - parseStart;
+    }
+
+    // "RESULTATS:classe,score,x,y,largeur,hauteur;..." (résultats déjà filtrés par la NMS du serveur)
+    private void parseResults(String content, NonMaxSuppression candidates) {
+        if (content == null || !content.startsWith(InferenceServerAgent.RESULTS_PREFIX)) return;
+        String body = content.substring(InferenceServerAgent.RESULTS_PREFIX.length());
+        if (body.isEmpty()) return;
+
+        for (String entry : body.split(";")) {
+            String[] fields = entry.split(",");
+            if (fields.length < 6) continue;
+            try {
+                candidates.add(Integer.parseInt(fields[0]), Float.parseFloat(fields[1]),
+                        Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                        Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+            } catch (NumberFormatException e) {
+                System.err.println("⚠️ Résultat d'inférence invalide: " + entry);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return model;
+    }
+
+    @Override
+    public String getClassName(int classId) {
+        if (classId >= 0 && classId < classNames.size()) {
+            return classNames.get(classId);
+        }
+        return "classe " + classId;
+    }
+
+    @Override
+    public int getClassCount() {
+        return classNames.size();
+    }
+
+    // Aucun réseau local
+    @Override
+    public ModelSession getSession() {
+        return null;
+    }
+
+    @Override
+    public double getAverageDecodeMs() {
+        long count = completedCount.get();
+        return count == 0 ? 0.0 : parseNanos / 1_000_000.0 / count;
+    }
+
+    public double getAverageRoundTripMs() {
+        long count = completedCount.get();
+        return count == 0 ? 0.0 : roundTripNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public void close() {
+        MatPool.release(encoded);
+        encodeParams.release();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s@%s[aller-retour=%.1f ms, réussies=%d, échecs=%d]", model, server.getLocalName(),
+                getAverageRoundTripMs(), completedCount.get(), failedCount.get());
+    }
+}
@@ -0,0 +1,51 @@
+package Containers;
+
+import jade.core.Profile;
+import jade.core.ProfileImpl;
+import jade.core.Runtime;
+import jade.wrapper.AgentContainer;
+import jade.wrapper.AgentController;
+import jade.wrapper.ControllerException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+// Conteneur du serveur d'inférence (sans interface).
+// Arguments: "host=adresse" du conteneur principal, puis les options "cle=valeur" du serveur
+// (ex: "batch.max=8 batch.wait_ms=10 objects.backend=cuda").
+public class InferenceContainer {
+    private static final Logger LOGGER = Logger.getLogger(InferenceContainer.class.getName());
+
+    public static void main(String[] args) {
+        String host = "localhost";
+        List<Object> agentArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("host=")) {
+                host = arg.substring("host=".length());
+            } else {
+                agentArguments.add(arg);
+            }
+        }
+
+        try {
+            LOGGER.info("Connexion au conteneur principal sur " + host + "...");
+            Runtime rt = Runtime.instance();
+            Profile profile = new ProfileImpl(false); // false car ce n'est pas un conteneur principal
+            profile.setParameter(Profile.MAIN_HOST, host);
+            profile.setParameter(Profile.MAIN_PORT, "1099"); // Port par défaut de JADE
+
+            AgentContainer container = rt.createAgentContainer(profile);
+            AgentController agentController = container.createNewAgent(
+                    "InferenceServer",
+                    "Agents.InferenceServerAgent",
+                    agentArguments.toArray()
+            );
+            agentController.start();
+            LOGGER.info("Serveur d'inférence démarré");
+        } catch (ControllerException e) {
+            LOGGER.severe("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -23,8 +23,11 @@ public class VisionContainer extends JFrame {
     private JTextField mainHostField;
     private JButton startButton;
     private AgentContainer agentContainer;
+    private final Object[] agentArguments;
+
+    public VisionContainer(Object[] agentArguments) {
+        this.agentArguments = agentArguments;
 
-    public VisionContainer() {
         // Configuration du logger
         configureLogger();
 
@@ -84,23 +87,8 @@ public class VisionContainer extends JFrame {
 
     private void startVisionAgent(String mainHost) {
         try {
-            // Démarrer le container JADE
-            Runtime rt = Runtime.instance();
-            Profile profile = new ProfileImpl(false); // false car ce n'est pas un conteneur principal
-            profile.setParameter(Profile.MAIN_HOST, mainHost);
-            profile.setParameter(Profile.MAIN_PORT, "1099"); // Port par défaut de JADE
-
             log("Connexion au conteneur principal sur " + mainHost + "...");
-            agentContainer = rt.createAgentContainer(profile);
-            log("Conteneur créé avec succès");
-
-            // Démarrer l'agent Vision Cognitif
-            AgentController agentController = agentContainer.createNewAgent(
-                    "VisionAgent",
-                    "Agents.AgentVisionCognitif",
-                    new Object[]{}
-            );
-            agentController.start();
+            agentContainer = launchVisionAgent(mainHost, agentArguments);
             log("Agent Vision Cognitif démarré");
         } catch (Exception e) {
             log("ERREUR: " + e.getMessage());
@@ -109,6 +97,27 @@ public class VisionContainer extends JFrame {
         }
     }
 
+    // Créer le conteneur JADE et y démarrer l'agent vision avec ses arguments "cle=valeur"
+    private static AgentContainer launchVisionAgent(String mainHost, Object[] agentArguments) throws ControllerException {
+        // Démarrer le container JADE
+        Runtime rt = Runtime.instance();
+        Profile profile = new ProfileImpl(false); // false car ce n'est pas un conteneur principal
+        profile.setParameter(Profile.MAIN_HOST, mainHost);
+        profile.setParameter(Profile.MAIN_PORT, "1099"); // Port par défaut de JADE
+
+        AgentContainer container = rt.createAgentContainer(profile);
+        LOGGER.info("Conteneur créé avec succès");
+
+        // Démarrer l'agent Vision Cognitif
+        AgentController agentController = container.createNewAgent(
+                "VisionAgent",
+                "Agents.AgentVisionCognitif",
+                agentArguments
+        );
+        agentController.start();
+        return container;
+    }
+
     private void log(String message) {
         SwingUtilities.invokeLater(() -> {
             logArea.append(message + "\n");
@@ -118,7 +127,40 @@ public class VisionContainer extends JFrame {
         LOGGER.info(message);
     }
 
+    // Arguments: options "cle=valeur" transmises à l'agent (ex: "headless=true mode=2 threshold=0.6 targets=r1").
+    // "host=adresse" désigne le conteneur principal; avec "headless=true" (ou sans écran), aucune fenêtre
+    // n'est créée et l'agent démarre directement.
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new VisionContainer());
+        String host = "localhost";
+        boolean headless = GraphicsEnvironment.isHeadless();
+        java.util.List<Object> agentArguments = new java.util.ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("host=")) {
+                host = arg.substring("host=".length());
+            } else {
+                if (arg.equals("headless=true")) headless = true;
+                agentArguments.add(arg);
+            }
+        }
+
+        if (headless) {
+            if (!agentArguments.contains("headless=true")) agentArguments.add("headless=true");
+            try {
+                LOGGER.info("Connexion au conteneur principal sur " + host + " (sans interface)...");
+                launchVisionAgent(host, agentArguments.toArray());
+                LOGGER.info("Agent Vision Cognitif démarré");
+            } catch (ControllerException e) {
+                LOGGER.severe("ERREUR: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        Object[] options = agentArguments.toArray();
+        String mainHost = host;
+        SwingUtilities.invokeLater(() -> {
+            VisionContainer container = new VisionContainer(options);
+            container.mainHostField.setText(mainHost);
+        });
     }
 }
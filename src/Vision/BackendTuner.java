@@ -0,0 +1,139 @@
+package Vision;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Choix du couple backend / cible DNN (la cible FP16 fixe aussi la précision).
+// En mode automatique, chaque combinaison disponible est mesurée sur le modèle au démarrage
+// et la plus rapide est retenue: sur une machine sans GPU, OpenCL ne gagne que s'il est réellement plus rapide.
+public class BackendTuner {
+
+    public static class Choice {
+        public final int backend;
+        public final int target;
+        public final String label;
+
+        Choice(int backend, int target, String label) {
+            this.backend = backend;
+            this.target = target;
+            this.label = label;
+        }
+
+        public void applyTo(Net net) {
+            net.setPreferableBackend(backend);
+            net.setPreferableTarget(target);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final Choice[] CANDIDATES = {
+            new Choice(Dnn.DNN_BACKEND_OPENCV, Dnn.DNN_TARGET_CPU, "opencv/cpu"),
+            new Choice(Dnn.DNN_BACKEND_OPENCV, Dnn.DNN_TARGET_OPENCL, "opencv/opencl"),
+            new Choice(Dnn.DNN_BACKEND_OPENCV, Dnn.DNN_TARGET_OPENCL_FP16, "opencv/opencl_fp16"),
+            new Choice(Dnn.DNN_BACKEND_INFERENCE_ENGINE, Dnn.DNN_TARGET_CPU, "openvino/cpu"),
+            new Choice(Dnn.DNN_BACKEND_CUDA, Dnn.DNN_TARGET_CUDA, "cuda/cuda"),
+            new Choice(Dnn.DNN_BACKEND_CUDA, Dnn.DNN_TARGET_CUDA_FP16, "cuda/cuda_fp16"),
+    };
+
+    public static Choice getDefault() {
+        return CANDIDATES[0];
+    }
+
+    // Lire une préférence explicite (ex: "opencv/opencl", "cuda/cuda_fp16")
+    public static Choice parse(String label) {
+        for (Choice candidate : CANDIDATES) {
+            if (candidate.label.equalsIgnoreCase(label.trim())) {
+                return candidate;
+            }
+        }
+        System.err.println("⚠️ Backend DNN inconnu: " + label + " (utilisation de " + getDefault() + ")");
+        return getDefault();
+    }
+
+    // Combinaisons compilées dans la version d'OpenCV chargée
+    public static List<Choice> getAvailableChoices() {
+        List<Choice> available = new ArrayList<>();
+        for (Choice candidate : CANDIDATES) {
+            try {
+                List<Integer> targets = Dnn.getAvailableTargets(candidate.backend);
+                if (targets != null && targets.contains(candidate.target)) {
+                    available.add(candidate);
+                }
+            } catch (Exception e) {
+                // Backend absent de cette build d'OpenCV
+            }
+        }
+        if (available.isEmpty()) {
+            available.add(getDefault());
+        }
+        return available;
+    }
+
+    // Mesurer chaque combinaison disponible sur le modèle et appliquer la plus rapide
+    public static Choice tune(Net net, ModelSpec spec, int iterations) {
+        List<String> outputNames = net.getUnconnectedOutLayersNames();
+        Mat image = MatPool.register(Mat.zeros(spec.getInputSize(), CvType.CV_8UC3));
+        Mat blob = MatPool.register(Dnn.blobFromImage(image, spec.getScale(), spec.getInputSize(),
+                spec.getMean(), spec.isSwapRB(), false));
+
+        Choice best = null;
+        double bestMs = Double.MAX_VALUE;
+        try {
+            for (Choice candidate : getAvailableChoices()) {
+                try {
+                    candidate.applyTo(net);
+                    double ms = measure(net, blob, outputNames, iterations);
+                    System.out.println(String.format("Modèle %s - %s: %.1f ms", spec.getName(), candidate, ms));
+                    if (ms < bestMs) {
+                        bestMs = ms;
+                        best = candidate;
+                    }
+                } catch (Exception e) {
+                    System.err.println("⚠️ Modèle " + spec.getName() + " - " + candidate + " inutilisable: " + e.getMessage());
+                }
+            }
+        } finally {
+            MatPool.release(blob);
+            MatPool.release(image);
+        }
+
+        if (best == null) {
+            best = getDefault();
+        }
+        best.applyTo(net);
+        System.out.println("✅ Backend retenu pour " + spec.getName() + ": " + best);
+        return best;
+    }
+
+    // Meilleur temps de forward (ms) après une passe de préchauffage
+    private static double measure(Net net, Mat blob, List<String> outputNames, int iterations) {
+        List<Mat> outputs = new ArrayList<>();
+        double bestMs = Double.MAX_VALUE;
+
+        for (int i = 0; i <= iterations; i++) {
+            net.setInput(blob);
+            long start = System.nanoTime();
+            net.forward(outputs, outputNames);
+            double ms = (System.nanoTime() - start) / 1_000_000.0;
+            for (Mat output : outputs) {
+                output.release();
+            }
+            outputs.clear();
+
+            // La première passe compile les noyaux et n'est pas comptée
+            if (i > 0) {
+                bestMs = Math.min(bestMs, ms);
+            }
+        }
+        return bestMs;
+    }
+}
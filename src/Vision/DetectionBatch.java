@@ -0,0 +1,239 @@
+package Vision;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Détections d'une image en tableaux primitifs (une colonne par champ), réutilisés d'une image à l'autre.
+// Remplace une liste d'objets par détection: le décodage, l'estimation de distance, le suivi et la
+// publication écrivent et lisent ces colonnes sans allocation une fois les tableaux à leur taille.
+// Les types pointent sur les noms de classes du détecteur (aucune chaîne créée par image).
+//
+// Un lot appartient à une image mais peut être partagé entre étages (rendu, publication):
+// chaque détenteur appelle retain() puis release(); le dernier release() le rend à son pool.
+public class DetectionBatch {
+
+    private final Pool pool;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    // Image d'origine (numéro de séquence et horodatage de capture)
+    private long frameSequence = -1;
+    private long captureTimestamp = 0;
+
+    private int count = 0;
+    private int[] classIds = new int[16];
+    private String[] types = new String[16];
+    private float[] confidences = new float[16];
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int[] widths = new int[16];
+    private int[] heights = new int[16];
+    private double[] distances = new double[16];
+    private int[] trackIds = new int[16];
+
+    public DetectionBatch() {
+        this(null);
+    }
+
+    private DetectionBatch(Pool pool) {
+        this.pool = pool;
+    }
+
+    public void clear() {
+        count = 0;
+        frameSequence = -1;
+        captureTimestamp = 0;
+    }
+
+    public void setFrame(long sequence, long timestamp) {
+        frameSequence = sequence;
+        captureTimestamp = timestamp;
+    }
+
+    public long getFrameSequence() {
+        return frameSequence;
+    }
+
+    public long getCaptureTimestamp() {
+        return captureTimestamp;
+    }
+
+    // Ajouter une détection (piste -1 jusqu'au suivi), retourne son indice
+    public int add(int classId, String type, float confidence, int x, int y, int width, int height, double distance) {
+        if (count == classIds.length) {
+            grow(count * 2);
+        }
+        classIds[count] = classId;
+        types[count] = type;
+        confidences[count] = confidence;
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = width;
+        heights[count] = height;
+        distances[count] = distance;
+        trackIds[count] = -1;
+        return count++;
+    }
+
+    // Ajouter toutes les détections d'un autre lot (l'image d'origine n'est pas copiée)
+    public void addAll(DetectionBatch other) {
+        int total = count + other.count;
+        if (total > classIds.length) {
+            grow(Math.max(total, classIds.length * 2));
+        }
+        System.arraycopy(other.classIds, 0, classIds, count, other.count);
+        System.arraycopy(other.types, 0, types, count, other.count);
+        System.arraycopy(other.confidences, 0, confidences, count, other.count);
+        System.arraycopy(other.xs, 0, xs, count, other.count);
+        System.arraycopy(other.ys, 0, ys, count, other.count);
+        System.arraycopy(other.widths, 0, widths, count, other.count);
+        System.arraycopy(other.heights, 0, heights, count, other.count);
+        System.arraycopy(other.distances, 0, distances, count, other.count);
+        System.arraycopy(other.trackIds, 0, trackIds, count, other.count);
+        count = total;
+    }
+
+    // Déplacer une boîte (suivi entre deux images clés); la distance suit la nouvelle largeur
+    public void moveBox(int i, int x, int y, int width, int height) {
+        // distance = taille réelle * focale / largeur: le produit est constant pour une même détection
+        if (width > 0 && widths[i] > 0) {
+            distances[i] = distances[i] * widths[i] / width;
+        }
+        xs[i] = x;
+        ys[i] = y;
+        widths[i] = width;
+        heights[i] = height;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public String getType(int i) {
+        return types[i];
+    }
+
+    public float getConfidence(int i) {
+        return confidences[i];
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public int getWidth(int i) {
+        return widths[i];
+    }
+
+    public int getHeight(int i) {
+        return heights[i];
+    }
+
+    public double getDistance(int i) {
+        return distances[i];
+    }
+
+    public int getTrackId(int i) {
+        return trackIds[i];
+    }
+
+    public void setTrackId(int i, int trackId) {
+        trackIds[i] = trackId;
+    }
+
+    // Ajouter un détenteur
+    public DetectionBatch retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    // Rendre le lot; le dernier détenteur le recycle dans son pool
+    public void release() {
+        if (references.decrementAndGet() == 0 && pool != null) {
+            pool.recycle(this);
+        }
+    }
+
+    private void grow(int capacity) {
+        classIds = Arrays.copyOf(classIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+        confidences = Arrays.copyOf(confidences, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        trackIds = Arrays.copyOf(trackIds, capacity);
+    }
+
+    // Table des tailles réelles (cm) indexée par identifiant de classe, pour l'estimation de distance.
+    // Construite une fois par modèle à partir de ses noms de classes; les classes inconnues prennent
+    // la taille par défaut.
+    public static double[] createSizeTable(Detector detector, Map<String, Double> sizesByName,
+                                           double defaultSize) {
+        double[] sizes = new double[detector.getClassCount()];
+        for (int classId = 0; classId < sizes.length; classId++) {
+            sizes[classId] = sizesByName.getOrDefault(detector.getClassName(classId), defaultSize);
+        }
+        return sizes;
+    }
+
+    // Lots réutilisables d'un flux; un lot rendu par release() redevient disponible, vidé
+    public static class Pool {
+        private final String name;
+        private final int maxIdle;
+        private final Deque<DetectionBatch> idle = new ArrayDeque<>();
+        private final AtomicLong createdCount = new AtomicLong();
+        private final AtomicLong reusedCount = new AtomicLong();
+
+        public Pool(String name, int maxIdle) {
+            this.name = name;
+            this.maxIdle = maxIdle;
+        }
+
+        // Obtenir un lot vide, avec un seul détenteur (l'appelant)
+        public DetectionBatch acquire() {
+            DetectionBatch batch;
+            synchronized (idle) {
+                batch = idle.pollFirst();
+            }
+            if (batch == null) {
+                createdCount.incrementAndGet();
+                return new DetectionBatch(this);
+            }
+            reusedCount.incrementAndGet();
+            batch.references.set(1);
+            return batch;
+        }
+
+        private void recycle(DetectionBatch batch) {
+            batch.clear();
+            synchronized (idle) {
+                if (idle.size() < maxIdle) {
+                    idle.addFirst(batch);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            int idleCount;
+            synchronized (idle) {
+                idleCount = idle.size();
+            }
+            return String.format("%s[créés=%d, réutilisés=%d, inactifs=%d]",
+                    name, createdCount.get(), reusedCount.get(), idleCount);
+        }
+    }
+}
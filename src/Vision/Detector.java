@@ -0,0 +1,37 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+// Point d'extension des détecteurs utilisés par l'agent de vision.
+// Un détecteur n'est utilisé que par un seul thread à la fois.
+public interface Detector {
+
+    String getName();
+
+    // Détecter les objets de l'image. Les candidats au-dessus du seuil sont ajoutés à la NMS
+    // (remise à zéro par le détecteur), en coordonnées de l'image d'origine.
+    void detect(Mat frame, float threshold, NonMaxSuppression candidates);
+
+    // Détecter sur un lot d'images: candidates[i] reçoit les candidats de frames.get(i) au seuil thresholds[i].
+    // Par défaut les images sont traitées l'une après l'autre; les détecteurs DNN font un seul forward.
+    default void detectBatch(List<Mat> frames, float[] thresholds, NonMaxSuppression[] candidates) {
+        for (int i = 0; i < frames.size(); i++) {
+            detect(frames.get(i), thresholds[i], candidates[i]);
+        }
+    }
+
+    // Nom de la classe d'après le fichier de noms du modèle
+    String getClassName(int classId);
+
+    int getClassCount();
+
+    // Session locale du réseau (null pour un détecteur sans réseau local)
+    ModelSession getSession();
+
+    // Temps moyen de décodage des sorties (ms)
+    double getAverageDecodeMs();
+
+    void close();
+}
@@ -0,0 +1,138 @@
+package Vision;
+
+import org.opencv.core.MatOfByte;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Chargement d'un détecteur à partir de sa description:
+// lecture du réseau selon son format, choix du backend, session préchauffée et fichier de noms.
+// Le décodage des sorties est confié au fournisseur enregistré sous le nom du décodeur de la description
+// ("yolo" et "ssd" par défaut); un nouveau format de sortie s'ajoute par register(), sans modifier la fabrique.
+public class DetectorFactory {
+
+    private static final int TUNING_ITERATIONS = 3;
+
+    // Construit le détecteur d'un décodeur autour d'une session chargée et préchauffée
+    public interface Provider {
+        Detector create(ModelSpec spec, ModelSession session, List<String> classNames);
+    }
+
+    private static final Map<String, Provider> providers = new ConcurrentHashMap<>();
+
+    static {
+        register(OutputDecoder.YOLO.key(), YoloDetector::new);
+        register(OutputDecoder.SSD.key(), SsdDetector::new);
+    }
+
+    // Enregistrer (ou remplacer) le fournisseur d'un décodeur, avant la création des détecteurs qui l'utilisent
+    public static void register(String decoder, Provider provider) {
+        if (decoder == null || decoder.trim().isEmpty() || provider == null) {
+            throw new IllegalArgumentException("Décodeur ou fournisseur manquant");
+        }
+        providers.put(decoder.trim().toLowerCase(), provider);
+    }
+
+    public static Detector create(ModelSpec spec, int warmUpIterations) throws IOException {
+        // Décodeur inconnu: erreur de configuration, signalée avant de charger le réseau
+        Provider provider = providers.get(spec.getDecoder());
+        if (provider == null) {
+            throw new IllegalArgumentException("Décodeur inconnu \"" + spec.getDecoder() + "\" pour le modèle "
+                    + spec.getName() + " (disponibles: " + providers.keySet() + ")");
+        }
+        requireFile(spec.getModelPath());
+        if (spec.getFormat() != ModelFormat.ONNX) {
+            requireFile(spec.getConfigPath());
+        }
+
+        // readNetFrom* copie le contenu des fichiers dans le réseau: les baux sur la projection sont rendus
+        // dès la lecture (le partage entre agents se fait au niveau des pools, voir SharedDetectorPools)
+        Net net;
+        ModelRegistry.Lease model = ModelRegistry.acquire(spec.getModelPath());
+        ModelRegistry.Lease config = null;
+        try {
+            if (spec.getFormat() != ModelFormat.ONNX) {
+                config = ModelRegistry.acquire(spec.getConfigPath());
+            }
+            net = readNet(spec, model.getBytes(), config == null ? null : config.getBytes());
+        } finally {
+            model.close();
+            if (config != null) config.close();
+        }
+        ModelSession session = createSession(spec, net, warmUpIterations);
+
+        try {
+            return provider.create(spec, session, loadClassNames(spec.getNamesPath()));
+        } catch (IOException | RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private static ModelSession createSession(ModelSpec spec, Net net, int warmUpIterations) throws IOException {
+        if (net == null || net.empty()) {
+            throw new IOException("Impossible de lire le modèle " + spec);
+        }
+
+        // Backend explicite ou mesuré au démarrage; le choix mesuré est retenu dans la description
+        // pour que les instances suivantes d'un même pool ne refassent pas la mesure
+        if ("auto".equalsIgnoreCase(spec.getBackend())) {
+            spec.withBackend(BackendTuner.tune(net, spec, TUNING_ITERATIONS).label);
+        } else {
+            BackendTuner.parse(spec.getBackend()).applyTo(net);
+        }
+
+        ModelSession session = new ModelSession(spec.getName(), net, spec.getInputSize(),
+                spec.getScale(), spec.getMean(), spec.isSwapRB());
+        session.warmUp(warmUpIterations);
+        return session;
+    }
+
+    // Construire le réseau depuis le contenu des fichiers (surcharges mémoire de readNetFrom*)
+    public static Net readNet(ModelSpec spec, MatOfByte model, MatOfByte config) {
+        switch (spec.getFormat()) {
+            case DARKNET:
+                return Dnn.readNetFromDarknet(config, model);
+            case CAFFE:
+                return Dnn.readNetFromCaffe(config, model);
+            case ONNX:
+            default:
+                return Dnn.readNetFromONNX(model);
+        }
+    }
+
+    // Un nom de classe par ligne (lignes vides ignorées)
+    public static List<String> loadClassNames(String namesPath) throws IOException {
+        List<String> names = new ArrayList<>();
+        if (namesPath == null) {
+            return names;
+        }
+        if (!new File(namesPath).exists()) {
+            System.err.println("⚠️ Fichier de noms de classes introuvable: " + namesPath);
+            return names;
+        }
+        for (String line : Files.readAllLines(Paths.get(namesPath), StandardCharsets.UTF_8)) {
+            String name = line.trim();
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static void requireFile(String path) throws FileNotFoundException {
+        if (path == null || !new File(path).exists()) {
+            throw new FileNotFoundException("Fichier de modèle introuvable: " + path);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package Vision;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Pool borné d'instances d'un même détecteur partagé entre plusieurs flux vidéo.
+// Chaque instance est confinée à son propre thread de travail; les requêtes sont rangées dans une file
+// par flux et les threads servent les flux à tour de rôle (round-robin): un flux rapide ne peut pas
+// affamer les autres, et la mémoire dépend du nombre d'instances, pas du nombre de caméras.
+// Un pool local peut servir les flux de plusieurs agents (SharedDetectorPools): un agent qui s'arrête
+// retire ses flux par closeStream() sans interrompre ceux des autres.
+public class DetectorPool {
+
+    private final String name;
+    private final List<Detector> detectors;
+    private final List<Thread> workers = new ArrayList<>();
+
+    // Files par flux, protégées par 'lock'
+    private final Object lock = new Object();
+    private final List<ArrayDeque<Task<?>>> queues = new ArrayList<>();
+    private final List<StreamStatistics> streamStatistics = new ArrayList<>();
+    private int nextStream = 0;
+    private boolean running = true;
+
+    private final AtomicLong completedCount = new AtomicLong();
+
+    // Requête d'inférence en attente
+    private static class Task<T> {
+        final int stream;
+        final Function<Detector, T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long submitNanos = System.nanoTime();
+
+        Task(int stream, Function<Detector, T> work) {
+            this.stream = stream;
+            this.work = work;
+        }
+
+        void run(Detector detector) {
+            try {
+                future.complete(work.apply(detector));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    // Compteurs d'un flux
+    private static class StreamStatistics {
+        final String name;
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        boolean closed = false; // Protégé par 'lock'
+
+        StreamStatistics(String name) {
+            this.name = name;
+        }
+    }
+
+    public DetectorPool(String name, List<Detector> detectors) {
+        if (detectors.isEmpty()) {
+            throw new IllegalArgumentException("Pool " + name + " sans détecteur");
+        }
+        this.name = name;
+        this.detectors = new ArrayList<>(detectors);
+        for (int i = 0; i < this.detectors.size(); i++) {
+            Detector detector = this.detectors.get(i);
+            Thread worker = new Thread(() -> workLoop(detector), "vision-net-" + name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    // Enregistrer un flux; retourne l'identifiant à passer à submit()
+    public int registerStream(String streamName) {
+        synchronized (lock) {
+            queues.add(new ArrayDeque<>());
+            streamStatistics.add(new StreamStatistics(streamName));
+            return queues.size() - 1;
+        }
+    }
+
+    // Soumettre une inférence pour un flux; elle s'exécutera sur l'une des instances du pool
+    public <T> Future<T> submit(int stream, Function<Detector, T> work) {
+        Task<T> task = new Task<>(stream, work);
+        synchronized (lock) {
+            if (!running || streamStatistics.get(stream).closed) {
+                task.future.cancel(false);
+                return task.future;
+            }
+            queues.get(stream).addLast(task);
+            lock.notify();
+        }
+        return task.future;
+    }
+
+    private void workLoop(Detector detector) {
+        while (true) {
+            Task<?> task = null;
+            StreamStatistics statistics;
+            synchronized (lock) {
+                while (running && (task = pollFair()) == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) return;
+                statistics = streamStatistics.get(task.stream);
+            }
+
+            statistics.waitNanos.addAndGet(System.nanoTime() - task.submitNanos);
+            task.run(detector);
+            statistics.completed.incrementAndGet();
+            completedCount.incrementAndGet();
+        }
+    }
+
+    // Prochaine requête en parcourant les flux à partir du suivant du dernier servi (appelé sous 'lock')
+    private Task<?> pollFair() {
+        int streamCount = queues.size();
+        for (int i = 0; i < streamCount; i++) {
+            int stream = (nextStream + i) % streamCount;
+            Task<?> task = queues.get(stream).pollFirst();
+            if (task != null) {
+                nextStream = (stream + 1) % streamCount;
+                return task;
+            }
+        }
+        return null;
+    }
+
+    // Instance de référence (noms de classes, statistiques du modèle)
+    public Detector getPrimary() {
+        return detectors.get(0);
+    }
+
+    public List<Detector> getDetectors() {
+        return detectors;
+    }
+
+    public int getSize() {
+        return detectors.size();
+    }
+
+    // Retirer un flux: ses requêtes en attente sont annulées et les suivantes refusées, l'inférence en cours
+    // se termine; les autres flux du pool continuent d'être servis
+    public void closeStream(int stream) {
+        synchronized (lock) {
+            streamStatistics.get(stream).closed = true;
+            Task<?> task;
+            while ((task = queues.get(stream).pollFirst()) != null) {
+                task.future.cancel(false);
+            }
+        }
+    }
+
+    // Arrêter les threads; les requêtes en attente sont annulées, les inférences en cours se terminent
+    public void shutdown() {
+        synchronized (lock) {
+            running = false;
+            for (ArrayDeque<Task<?>> queue : queues) {
+                Task<?> task;
+                while ((task = queue.pollFirst()) != null) {
+                    task.future.cancel(false);
+                }
+            }
+            lock.notifyAll();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void close() {
+        shutdown();
+        for (Detector detector : detectors) {
+            detector.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("pool-%s[instances=%d, inférences=%d", name, detectors.size(), completedCount.get()));
+        synchronized (lock) {
+            for (StreamStatistics statistics : streamStatistics) {
+                if (statistics.closed) continue;
+                long completed = statistics.completed.get();
+                builder.append(String.format(", %s=%d (attente %.1f ms)", statistics.name, completed,
+                        completed == 0 ? 0 : statistics.waitNanos.get() / 1e6 / completed));
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
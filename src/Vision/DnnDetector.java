@@ -0,0 +1,96 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+// Base commune des détecteurs DNN: exécution de la session puis décodage des sorties
+public abstract class DnnDetector implements Detector {
+
+    protected final ModelSpec spec;
+    protected final ModelSession session;
+    private final List<String> classNames;
+
+    // Mesures du temps de décodage (écrites par le thread du détecteur uniquement)
+    private volatile long decodeNanos = 0;
+    private volatile long decodeCount = 0;
+
+    protected DnnDetector(ModelSpec spec, ModelSession session, List<String> classNames) {
+        this.spec = spec;
+        this.session = session;
+        this.classNames = classNames;
+    }
+
+    @Override
+    public void detect(Mat frame, float threshold, NonMaxSuppression candidates) {
+        List<Mat> outputs = session.run(frame);
+
+        long start = System.nanoTime();
+        candidates.reset();
+        decode(outputs, 0, 1, frame.cols(), frame.rows(), threshold, candidates);
+        decodeNanos += System.nanoTime() - start;
+        decodeCount++;
+    }
+
+    @Override
+    public void detectBatch(List<Mat> frames, float[] thresholds, NonMaxSuppression[] candidates) {
+        if (frames.size() == 1) {
+            detect(frames.get(0), thresholds[0], candidates[0]);
+            return;
+        }
+        List<Mat> outputs = session.runBatch(frames);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < frames.size(); i++) {
+            Mat frame = frames.get(i);
+            candidates[i].reset();
+            decode(outputs, i, frames.size(), frame.cols(), frame.rows(), thresholds[i], candidates[i]);
+        }
+        decodeNanos += System.nanoTime() - start;
+        decodeCount += frames.size();
+    }
+
+    // Convertir les sorties brutes du réseau pour l'image 'image' d'un lot de 'batchSize' images
+    // en candidats (coordonnées de l'image d'origine)
+    protected abstract void decode(List<Mat> outputs, int image, int batchSize, int frameWidth, int frameHeight,
+                                   float threshold, NonMaxSuppression candidates);
+
+    @Override
+    public String getName() {
+        return spec.getName();
+    }
+
+    @Override
+    public String getClassName(int classId) {
+        if (classId >= 0 && classId < classNames.size()) {
+            return classNames.get(classId);
+        }
+        return "classe " + classId;
+    }
+
+    @Override
+    public int getClassCount() {
+        return classNames.size();
+    }
+
+    @Override
+    public ModelSession getSession() {
+        return session;
+    }
+
+    @Override
+    public double getAverageDecodeMs() {
+        long count = decodeCount;
+        return count == 0 ? 0.0 : decodeNanos / 1_000_000.0 / count;
+    }
+
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    @Override
+    public String toString() {
+        return spec.toString();
+    }
+}
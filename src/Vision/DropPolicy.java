@@ -0,0 +1,22 @@
+package Vision;
+
+// Politique appliquée par un étage du pipeline (ou une file d'envoi) lorsque sa file d'entrée est pleine
+public enum DropPolicy {
+    DROP_OLDEST,     // Retirer l'élément le plus ancien pour accepter le nouveau (latence minimale)
+    DROP_NEWEST,     // Rejeter l'élément entrant et garder la file telle quelle
+    COALESCE_LATEST, // Remplacer l'élément en attente de même nature par le plus récent (dès l'entrée)
+    BLOCK;           // Bloquer le producteur jusqu'à ce qu'une place se libère (aucune perte)
+
+    // Lecture tolérante d'une politique depuis les arguments de l'agent
+    public static DropPolicy parse(String value, DropPolicy defaultPolicy) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultPolicy;
+        }
+        try {
+            return DropPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Politique de rejet inconnue: " + value + " (utilisation de " + defaultPolicy + ")");
+            return defaultPolicy;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package Vision;
+
+// Cadencement des sources enregistrées: en mode REALTIME, read() attend l'échéance de l'image suivante
+// (1 / fps après la précédente); en mode FAST, aucune attente.
+// Si le pipeline prend du retard, l'échéancier est recalé au lieu d'enchaîner des images en rafale.
+class FramePacer {
+
+    private final FramePacing pacing;
+    private final long frameIntervalNanos;
+    private long nextFrameNanos = -1;
+
+    FramePacer(FramePacing pacing, double fps) {
+        this.pacing = pacing;
+        this.frameIntervalNanos = (long) (1_000_000_000L / (fps > 0 ? fps : 25));
+    }
+
+    void await() {
+        if (pacing == FramePacing.FAST) return;
+
+        long now = System.nanoTime();
+        if (nextFrameNanos < 0 || now - nextFrameNanos > frameIntervalNanos) {
+            // Première image ou retard de plus d'une image: repartir de maintenant
+            nextFrameNanos = now + frameIntervalNanos;
+            return;
+        }
+
+        long waitNanos = nextFrameNanos - now;
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        nextFrameNanos += frameIntervalNanos;
+    }
+}
@@ -0,0 +1,17 @@
+package Vision;
+
+// Rythme de lecture des sources enregistrées (fichiers vidéo, répertoires d'images, images synthétiques)
+public enum FramePacing {
+    FAST,       // Aussi vite que possible: mesure du débit brut du pipeline
+    REALTIME;   // Au rythme nominal de la source: rejoue les conditions de production
+
+    public static FramePacing parse(String value, FramePacing defaultPacing) {
+        if (value == null || value.trim().isEmpty()) return defaultPacing;
+        try {
+            return FramePacing.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Rythme de lecture inconnu: " + value + " (utilisation de " + defaultPacing + ")");
+            return defaultPacing;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+// Source d'images lue par le pipeline de vision (caméra, fichier ou flux vidéo, répertoire d'images,
+// générateur synthétique). read() est appelé uniquement depuis le thread de capture.
+public interface FrameSource {
+
+    String getName();
+
+    boolean isOpened();
+
+    // Lire l'image suivante dans 'frame' (tampon réutilisé, BGR 8 bits).
+    // Retourne faux si aucune image n'est disponible pour le moment ou si la source est épuisée.
+    boolean read(Mat frame);
+
+    // Vrai quand une source finie (fichier, répertoire sans lecture en boucle) est épuisée
+    boolean isEnded();
+
+    void close();
+}
@@ -0,0 +1,56 @@
+package Vision;
+
+import java.io.File;
+
+// Création d'une source d'images à partir d'une description textuelle:
+//   "camera:0"            webcam d'indice 0 (défaut)
+//   "file:video.mp4"      fichier vidéo (cadencé selon FramePacing, relu en boucle si demandé)
+//   "rtsp://..." "http://..." flux réseau via VideoCapture
+//   "images:dossier"      répertoire d'images
+//   "synthetic" / "synthetic:5" générateur synthétique (nombre de formes)
+// Sans préfixe, un entier désigne une webcam, un répertoire une suite d'images, sinon un fichier vidéo.
+// Une description mal formée lève IllegalArgumentException avec un message explicite.
+public class FrameSourceFactory {
+
+    private static final int DEFAULT_SYNTHETIC_SHAPES = 3;
+
+    public static FrameSource create(String spec, FramePacing pacing, boolean loop, double fps, int width, int height) {
+        String value = spec == null || spec.trim().isEmpty() ? "camera:0" : spec.trim();
+
+        if (value.startsWith("camera:")) {
+            return new VideoFrameSource(parseCount(value.substring("camera:".length()), "indice de caméra", spec), width, height);
+        }
+        if (value.startsWith("file:")) {
+            return new VideoFrameSource(value.substring("file:".length()), pacing, loop);
+        }
+        if (value.startsWith("images:")) {
+            return new ImageDirectoryFrameSource(value.substring("images:".length()), pacing, fps, loop);
+        }
+        if (value.equals("synthetic") || value.startsWith("synthetic:")) {
+            int shapes = value.equals("synthetic") ? DEFAULT_SYNTHETIC_SHAPES
+                    : parseCount(value.substring("synthetic:".length()), "nombre de formes", spec);
+            return new SyntheticFrameSource(width, height, pacing, fps, shapes);
+        }
+        if (value.contains("://")) {
+            return new VideoFrameSource(value, pacing, false);
+        }
+        if (value.matches("\\d+")) {
+            return new VideoFrameSource(Integer.parseInt(value), width, height);
+        }
+        if (new File(value).isDirectory()) {
+            return new ImageDirectoryFrameSource(value, pacing, fps, loop);
+        }
+        return new VideoFrameSource(value, pacing, loop);
+    }
+
+    // Entier positif ou nul d'une description de source
+    private static int parseCount(String value, String what, String spec) {
+        try {
+            int count = Integer.parseInt(value.trim());
+            if (count >= 0) return count;
+        } catch (NumberFormatException e) {
+            // Message commun ci-dessous
+        }
+        throw new IllegalArgumentException(what + " invalide \"" + value + "\" dans la source \"" + spec + "\"");
+    }
+}
@@ -0,0 +1,78 @@
+package Vision;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.File;
+import java.util.Arrays;
+
+// Source lisant les images d'un répertoire (jpg, png, bmp) par ordre alphabétique,
+// au rythme demandé et éventuellement en boucle.
+public class ImageDirectoryFrameSource implements FrameSource {
+
+    private final String name;
+    private final File[] files;
+    private final boolean loop;
+    private final FramePacer pacer;
+    private int nextIndex = 0;
+    private boolean ended = false;
+
+    public ImageDirectoryFrameSource(String directory, FramePacing pacing, double fps, boolean loop) {
+        this.name = directory;
+        File[] listed = new File(directory).listFiles((dir, fileName) -> {
+            String lower = fileName.toLowerCase();
+            return lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png") || lower.endsWith(".bmp");
+        });
+        this.files = listed != null ? listed : new File[0];
+        Arrays.sort(this.files);
+        this.loop = loop;
+        this.pacer = new FramePacer(pacing, fps);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return files.length > 0;
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        if (ended || files.length == 0) return false;
+
+        if (nextIndex == files.length) {
+            if (!loop) {
+                ended = true;
+                return false;
+            }
+            nextIndex = 0;
+        }
+
+        pacer.await();
+        File file = files[nextIndex++];
+        Mat image = Imgcodecs.imread(file.getPath(), Imgcodecs.IMREAD_COLOR);
+        try {
+            if (image.empty()) {
+                System.err.println("⚠️ Image illisible ignorée: " + file.getPath());
+                return false;
+            }
+            image.copyTo(frame);
+            return true;
+        } finally {
+            image.release();
+        }
+    }
+
+    @Override
+    public boolean isEnded() {
+        return ended;
+    }
+
+    @Override
+    public void close() {
+        // Aucune ressource native conservée entre deux lectures
+    }
+}
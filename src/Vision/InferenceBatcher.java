@@ -0,0 +1,189 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Regroupement dynamique des requêtes d'inférence d'un modèle en lots.
+// Les images de plusieurs flux (ou agents) s'accumulent dans une file bornée; le thread du lot part
+// dès que maxBatch images sont présentes ou que la plus ancienne a attendu maxWaitMs, puis exécute
+// un seul forward pour tout le lot. La NMS est appliquée par image avant de rendre les résultats.
+public class InferenceBatcher {
+
+    // Réception des résultats d'une requête (appelée sur le thread du lot)
+    public interface Callback {
+        // 'results' n'est valide que pendant l'appel: lire les getKept(k) avant de retourner
+        void completed(Detector detector, NonMaxSuppression results, int keptCount);
+
+        void failed(String reason);
+    }
+
+    // Requête en attente; l'image appartient au batcher jusqu'à la fin du lot
+    private static class Request {
+        final Mat frame;
+        final float threshold;
+        final Callback callback;
+        final long arrivalNanos = System.nanoTime();
+
+        Request(Mat frame, float threshold, Callback callback) {
+            this.frame = frame;
+            this.threshold = threshold;
+            this.callback = callback;
+        }
+    }
+
+    private final String name;
+    private final Detector detector;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final int capacity;
+    private final Thread worker;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private boolean running = true;
+
+    // Tampons du lot, réutilisés (thread du lot uniquement)
+    private final List<Mat> batchFrames = new ArrayList<>();
+    private final List<Request> batch = new ArrayList<>();
+    private final float[] thresholds;
+    private final NonMaxSuppression[] candidates;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong imageCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    public InferenceBatcher(String name, Detector detector, int maxBatch, long maxWaitMs, int capacity,
+                            float nmsIouThreshold, int nmsTopK) {
+        this.name = name;
+        this.detector = detector;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxWaitNanos = Math.max(0, maxWaitMs) * 1_000_000L;
+        this.capacity = Math.max(this.maxBatch, capacity);
+        this.thresholds = new float[this.maxBatch];
+        this.candidates = new NonMaxSuppression[this.maxBatch];
+        for (int i = 0; i < this.maxBatch; i++) {
+            candidates[i] = new NonMaxSuppression(nmsIouThreshold, nmsTopK);
+        }
+
+        worker = new Thread(this::batchLoop, "inference-batch-" + name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Soumettre une image (enregistrée dans MatPool; libérée par le batcher).
+    // Retourne false si la file est pleine ou le batcher arrêté: l'appelant garde alors l'image.
+    public boolean submit(Mat frame, float threshold, Callback callback) {
+        synchronized (lock) {
+            if (!running || queue.size() >= capacity) {
+                rejectedCount.incrementAndGet();
+                return false;
+            }
+            queue.addLast(new Request(frame, threshold, callback));
+            lock.notify();
+        }
+        return true;
+    }
+
+    private void batchLoop() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    while (running && queue.isEmpty()) {
+                        lock.wait();
+                    }
+                    // Attendre d'autres images jusqu'au lot complet ou à l'échéance de la plus ancienne
+                    long deadline = running ? queue.peekFirst().arrivalNanos + maxWaitNanos : 0;
+                    long remaining;
+                    while (running && queue.size() < maxBatch && (remaining = deadline - System.nanoTime()) > 0) {
+                        lock.wait(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+                    }
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+                if (!running) break;
+
+                long now = System.nanoTime();
+                while (batch.size() < maxBatch && !queue.isEmpty()) {
+                    Request request = queue.pollFirst();
+                    waitNanos.addAndGet(now - request.arrivalNanos);
+                    batch.add(request);
+                }
+            }
+            runBatch();
+        }
+
+        // Arrêt: prévenir les requêtes restantes
+        synchronized (lock) {
+            for (Request request : queue) {
+                request.callback.failed("serveur arrêté");
+                MatPool.release(request.frame);
+            }
+            queue.clear();
+        }
+    }
+
+    private void runBatch() {
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Request request = batch.get(i);
+                batchFrames.add(request.frame);
+                thresholds[i] = request.threshold;
+            }
+            detector.detectBatch(batchFrames, thresholds, candidates);
+            batchCount.incrementAndGet();
+            imageCount.addAndGet(batch.size());
+
+            for (int i = 0; i < batch.size(); i++) {
+                int kept = candidates[i].apply();
+                batch.get(i).callback.completed(detector, candidates[i], kept);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Erreur d'inférence par lot (" + name + "): " + e.getMessage());
+            for (Request request : batch) {
+                request.callback.failed(String.valueOf(e.getMessage()));
+            }
+        } finally {
+            for (Request request : batch) {
+                MatPool.release(request.frame);
+            }
+            batch.clear();
+            batchFrames.clear();
+        }
+    }
+
+    public Detector getDetector() {
+        return detector;
+    }
+
+    // Arrêter le thread du lot (le lot en cours se termine); les requêtes en attente échouent
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            worker.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        long batches = batchCount.get();
+        long images = imageCount.get();
+        int pending;
+        synchronized (lock) {
+            pending = queue.size();
+        }
+        return String.format("lot-%s[lots=%d, images=%d, taille moyenne=%.2f/%d, attente=%.1f ms, en file=%d, rejetées=%d, forward=%.1f ms]",
+                name, batches, images, batches == 0 ? 0.0 : (double) images / batches, maxBatch,
+                images == 0 ? 0.0 : waitNanos.get() / 1e6 / images, pending, rejectedCount.get(),
+                detector.getSession() == null ? 0.0 : detector.getSession().getAverageForwardMs());
+    }
+}
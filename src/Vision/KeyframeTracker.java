@@ -0,0 +1,260 @@
+package Vision;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Size;
+import org.opencv.video.Video;
+
+import java.util.Arrays;
+
+// Planificateur "détecter toutes les N images" d'un modèle, avec suivi léger entre deux détections.
+// Sur une image clé, le détecteur complet fournit les boîtes; sur les images intermédiaires,
+// chaque boîte est déplacée par flot optique (Lucas-Kanade pyramidal sur une grille de points,
+// déplacement et échelle médians). Si trop de points d'une boîte sont perdus, la confiance du suivi
+// chute et une détection complète est demandée immédiatement.
+// Une instance n'est utilisée que depuis le thread d'inférence de son modèle.
+public class KeyframeTracker {
+
+    private static final int GRID = 4;                    // Points suivis par boîte: GRID x GRID
+    private static final float GRID_MARGIN = 0.2f;        // Marge intérieure de la grille (bords souvent du fond)
+    private static final float MAX_FLOW_ERROR = 20f;      // Erreur LK au-delà de laquelle un point est rejeté
+    private static final float MIN_SCALE = 0.8f;
+    private static final float MAX_SCALE = 1.25f;
+    private static final Size FLOW_WINDOW = new Size(15, 15);
+    private static final int FLOW_LEVELS = 2;
+
+    private final String name;
+    private final int interval;
+    private final float minConfidence;
+
+    // Boîtes suivies (x, y, largeur, hauteur) en tableaux primitifs
+    private int boxCount = 0;
+    private float[] boxX = new float[16];
+    private float[] boxY = new float[16];
+    private float[] boxW = new float[16];
+    private float[] boxH = new float[16];
+
+    // Image précédente (niveaux de gris) et tampons du flot optique, réutilisés d'une image à l'autre
+    private final Mat previousGray = MatPool.register(new Mat());
+    private final MatOfPoint2f previousPoints = MatPool.register(new MatOfPoint2f());
+    private final MatOfPoint2f nextPoints = MatPool.register(new MatOfPoint2f());
+    private final MatOfByte status = MatPool.register(new MatOfByte());
+    private final MatOfFloat errors = MatPool.register(new MatOfFloat());
+    private float[] pointBuffer = new float[0];
+    private float[] movedBuffer = new float[0];
+    private byte[] statusBuffer = new byte[0];
+    private float[] errorBuffer = new float[0];
+    private final float[] dx = new float[GRID * GRID];
+    private final float[] dy = new float[GRID * GRID];
+    private final float[] scales = new float[GRID * GRID];
+
+    private long lastSequence = -1;
+    private int framesSinceKeyframe = 0;
+    private float lastConfidence = 1f;
+    private long keyframeCount = 0;
+    private long propagatedCount = 0;
+    private long forcedCount = 0;
+
+    public KeyframeTracker(String name, int interval, float minConfidence) {
+        this.name = name;
+        this.interval = Math.max(1, interval);
+        this.minConfidence = minConfidence;
+    }
+
+    // Faut-il lancer le détecteur complet sur l'image de numéro 'sequence' ?
+    public boolean needsKeyframe(long sequence) {
+        // Pas d'image de référence, ou trop d'images sautées (changement de mode, rejets) pour propager
+        if (lastSequence < 0 || sequence - lastSequence > interval) {
+            return true;
+        }
+        return framesSinceKeyframe + 1 >= interval;
+    }
+
+    // Enregistrer le résultat d'une détection complète et l'image associée
+    public void keyframe(long sequence, Mat gray) {
+        gray.copyTo(previousGray);
+        lastSequence = sequence;
+        framesSinceKeyframe = 0;
+        lastConfidence = 1f;
+        keyframeCount++;
+    }
+
+    public void clearBoxes() {
+        boxCount = 0;
+    }
+
+    public void addBox(float x, float y, float width, float height) {
+        if (boxCount == boxX.length) {
+            int capacity = boxCount * 2;
+            boxX = Arrays.copyOf(boxX, capacity);
+            boxY = Arrays.copyOf(boxY, capacity);
+            boxW = Arrays.copyOf(boxW, capacity);
+            boxH = Arrays.copyOf(boxH, capacity);
+        }
+        boxX[boxCount] = x;
+        boxY[boxCount] = y;
+        boxW[boxCount] = width;
+        boxH[boxCount] = height;
+        boxCount++;
+    }
+
+    // Déplacer les boîtes vers l'image 'gray'. Retourne vrai si le suivi reste fiable;
+    // sinon l'appelant doit relancer le détecteur sur cette même image.
+    public boolean propagate(long sequence, Mat gray) {
+        framesSinceKeyframe++;
+        lastSequence = sequence;
+
+        if (boxCount == 0) {
+            // Rien à suivre: garder seulement l'image pour la prochaine propagation
+            gray.copyTo(previousGray);
+            propagatedCount++;
+            return true;
+        }
+
+        int pointsPerBox = GRID * GRID;
+        int pointCount = boxCount * pointsPerBox;
+        ensureCapacity(pointCount);
+
+        // Grille de points à l'intérieur de chaque boîte
+        int p = 0;
+        for (int b = 0; b < boxCount; b++) {
+            float marginX = boxW[b] * GRID_MARGIN;
+            float marginY = boxH[b] * GRID_MARGIN;
+            float stepX = (boxW[b] - 2 * marginX) / (GRID - 1);
+            float stepY = (boxH[b] - 2 * marginY) / (GRID - 1);
+            for (int gy = 0; gy < GRID; gy++) {
+                for (int gx = 0; gx < GRID; gx++) {
+                    pointBuffer[p++] = boxX[b] + marginX + gx * stepX;
+                    pointBuffer[p++] = boxY[b] + marginY + gy * stepY;
+                }
+            }
+        }
+
+        previousPoints.create(pointCount, 1, CvType.CV_32FC2);
+        previousPoints.put(0, 0, pointBuffer);
+        Video.calcOpticalFlowPyrLK(previousGray, gray, previousPoints, nextPoints, status, errors,
+                FLOW_WINDOW, FLOW_LEVELS);
+        nextPoints.get(0, 0, movedBuffer);
+        status.get(0, 0, statusBuffer);
+        errors.get(0, 0, errorBuffer);
+
+        // Déplacement et échelle médians par boîte; la confiance est celle de la boîte la moins bien suivie
+        float confidence = 1f;
+        int frameWidth = gray.cols();
+        int frameHeight = gray.rows();
+        for (int b = 0; b < boxCount; b++) {
+            int first = b * pointsPerBox;
+            int valid = 0;
+            float oldCenterX = 0, oldCenterY = 0, newCenterX = 0, newCenterY = 0;
+            for (int i = first; i < first + pointsPerBox; i++) {
+                if (statusBuffer[i] == 0 || errorBuffer[i] > MAX_FLOW_ERROR) continue;
+                dx[valid] = movedBuffer[2 * i] - pointBuffer[2 * i];
+                dy[valid] = movedBuffer[2 * i + 1] - pointBuffer[2 * i + 1];
+                oldCenterX += pointBuffer[2 * i];
+                oldCenterY += pointBuffer[2 * i + 1];
+                newCenterX += movedBuffer[2 * i];
+                newCenterY += movedBuffer[2 * i + 1];
+                valid++;
+            }
+            confidence = Math.min(confidence, (float) valid / pointsPerBox);
+            if (valid < 2) continue;
+
+            // Échelle: rapport médian des distances au centre des points valides
+            oldCenterX /= valid;
+            oldCenterY /= valid;
+            newCenterX /= valid;
+            newCenterY /= valid;
+            int scaleCount = 0;
+            for (int i = first; i < first + pointsPerBox; i++) {
+                if (statusBuffer[i] == 0 || errorBuffer[i] > MAX_FLOW_ERROR) continue;
+                float oldDistance = (float) Math.hypot(pointBuffer[2 * i] - oldCenterX, pointBuffer[2 * i + 1] - oldCenterY);
+                if (oldDistance < 1f) continue;
+                float newDistance = (float) Math.hypot(movedBuffer[2 * i] - newCenterX, movedBuffer[2 * i + 1] - newCenterY);
+                scales[scaleCount++] = newDistance / oldDistance;
+            }
+            float scale = scaleCount > 0 ? median(scales, scaleCount) : 1f;
+            scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+
+            float centerX = boxX[b] + boxW[b] / 2 + median(dx, valid);
+            float centerY = boxY[b] + boxH[b] / 2 + median(dy, valid);
+            boxW[b] *= scale;
+            boxH[b] *= scale;
+            boxX[b] = centerX - boxW[b] / 2;
+            boxY[b] = centerY - boxH[b] / 2;
+
+            // Une boîte sortie de l'image n'est plus suivie de façon fiable
+            if (boxX[b] + boxW[b] <= 0 || boxY[b] + boxH[b] <= 0 || boxX[b] >= frameWidth || boxY[b] >= frameHeight) {
+                confidence = 0f;
+            }
+        }
+
+        gray.copyTo(previousGray);
+        lastConfidence = confidence;
+        if (confidence < minConfidence) {
+            forcedCount++;
+            return false;
+        }
+        propagatedCount++;
+        return true;
+    }
+
+    private void ensureCapacity(int pointCount) {
+        if (pointBuffer.length < pointCount * 2) {
+            pointBuffer = new float[pointCount * 2];
+            movedBuffer = new float[pointCount * 2];
+            statusBuffer = new byte[pointCount];
+            errorBuffer = new float[pointCount];
+        }
+    }
+
+    // Médiane des 'count' premières valeurs (le tableau est trié sur place)
+    private static float median(float[] values, int count) {
+        Arrays.sort(values, 0, count);
+        return count % 2 == 1 ? values[count / 2] : (values[count / 2 - 1] + values[count / 2]) / 2;
+    }
+
+    public int getBoxCount() {
+        return boxCount;
+    }
+
+    public float getX(int i) {
+        return boxX[i];
+    }
+
+    public float getY(int i) {
+        return boxY[i];
+    }
+
+    public float getWidth(int i) {
+        return boxW[i];
+    }
+
+    public float getHeight(int i) {
+        return boxH[i];
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public float getLastConfidence() {
+        return lastConfidence;
+    }
+
+    public void close() {
+        MatPool.release(previousGray);
+        MatPool.release(previousPoints);
+        MatPool.release(nextPoints);
+        MatPool.release(status);
+        MatPool.release(errors);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[N=%d, détections=%d, propagées=%d, forcées=%d]",
+                name, interval, keyframeCount, propagatedCount, forcedCount);
+    }
+}
@@ -0,0 +1,64 @@
+package Vision;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histogramme de latences en millisecondes, par classes de puissances de 2 (0-1, 1-2, 2-4, ... ms).
+// Enregistrement sans allocation ni verrou (un seul écrivain ou plusieurs); les centiles sont estimés
+// par la borne supérieure de leur classe, ce qui suffit pour comparer des voies ou repérer une dérive.
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 20; // Dernière classe: au-delà de 2^18 ms (~4 min)
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void record(long latencyMs) {
+        long value = Math.max(0, latencyMs);
+        int bucket = value == 0 ? 0 : Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumMs.addAndGet(value);
+        long max;
+        while (value > (max = maxMs.get()) && !maxMs.compareAndSet(max, value)) {
+            // Réessayer: un autre thread a mis à jour le maximum
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getAverageMs() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sumMs.get() / n;
+    }
+
+    public long getMaxMs() {
+        return maxMs.get();
+    }
+
+    // Borne supérieure (ms) de la classe contenant le centile demandé (0 à 1)
+    public long getPercentileMs(double percentile) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(percentile * n);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(1L << bucket, maxMs.get());
+            }
+        }
+        return maxMs.get();
+    }
+
+    // "n=120, moy=3.2, p50<=4, p99<=16, max=13 ms"
+    @Override
+    public String toString() {
+        return String.format("n=%d, moy=%.1f, p50<=%d, p99<=%d, max=%d ms", getCount(), getAverageMs(),
+                getPercentileMs(0.5), getPercentileMs(0.99), getMaxMs());
+    }
+}
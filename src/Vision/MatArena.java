@@ -0,0 +1,67 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Arène de Mat à portée d'une image: les tampons empruntés au pool y retournent
+// et les Mat temporaires (blobs, sorties DNN...) sont libérées à la fermeture.
+// Thread-safe: plusieurs réseaux peuvent y enregistrer leurs sorties en parallèle.
+public class MatArena implements AutoCloseable {
+
+    private final MatPool pool;
+    private final List<Mat> borrowed = new ArrayList<>();
+    private final List<Mat> temporaries = new ArrayList<>();
+    private boolean closed = false;
+
+    public MatArena(MatPool pool) {
+        this.pool = pool;
+    }
+
+    // Emprunter un tampon réutilisable, rendu au pool à la fermeture de l'arène
+    public synchronized Mat borrow() {
+        Mat mat = pool != null ? pool.acquire() : MatPool.register(new Mat());
+        if (pool != null) {
+            borrowed.add(mat);
+        } else {
+            temporaries.add(mat);
+        }
+        return mat;
+    }
+
+    // Confier une Mat temporaire à l'arène: elle sera libérée à la fermeture
+    public synchronized <T extends Mat> T track(T mat) {
+        if (mat != null) {
+            temporaries.add(MatPool.register(mat));
+        }
+        return mat;
+    }
+
+    public synchronized <T extends Mat> List<T> trackAll(List<T> mats) {
+        for (T mat : mats) {
+            track(mat);
+        }
+        return mats;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        for (Mat mat : temporaries) {
+            MatPool.release(mat);
+        }
+        temporaries.clear();
+
+        for (Mat mat : borrowed) {
+            pool.recycle(mat);
+        }
+        borrowed.clear();
+    }
+}
@@ -0,0 +1,117 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pool de Mat natives réutilisables (images, tampons d'affichage...).
+// Tient aussi une comptabilité globale des Mat enregistrées (vivantes / pic) pour repérer les fuites
+// de mémoire native: toute Mat enregistrée via register() doit être libérée via release().
+public class MatPool {
+
+    // Compteurs globaux, toutes instances confondues
+    private static final AtomicLong LIVE_MATS = new AtomicLong();
+    private static final AtomicLong PEAK_MATS = new AtomicLong();
+    private static final AtomicLong ALLOCATED_MATS = new AtomicLong();
+    private static final AtomicLong RELEASED_MATS = new AtomicLong();
+
+    private final String name;
+    private final int maxIdle;
+    private final Deque<Mat> idle = new ArrayDeque<>();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong reusedCount = new AtomicLong();
+
+    public MatPool(String name, int maxIdle) {
+        this.name = name;
+        this.maxIdle = maxIdle;
+    }
+
+    // Obtenir une Mat du pool. Son contenu est indéfini: l'appelant la remplit
+    // (camera.read, copyTo, create...), ce qui réutilise le tampon natif si la taille est identique.
+    public Mat acquire() {
+        Mat mat;
+        synchronized (idle) {
+            mat = idle.pollFirst();
+        }
+        if (mat != null) {
+            reusedCount.incrementAndGet();
+            return mat;
+        }
+        createdCount.incrementAndGet();
+        return register(new Mat());
+    }
+
+    // Rendre une Mat au pool (ou la libérer si le pool est plein)
+    public void recycle(Mat mat) {
+        if (mat == null) return;
+        synchronized (idle) {
+            if (idle.size() < maxIdle) {
+                idle.addFirst(mat);
+                return;
+            }
+        }
+        release(mat);
+    }
+
+    // Libérer toutes les Mat inactives du pool
+    public void clear() {
+        synchronized (idle) {
+            Mat mat;
+            while ((mat = idle.pollFirst()) != null) {
+                release(mat);
+            }
+        }
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[créées=%d, réutilisées=%d, inactives=%d]",
+                name, createdCount.get(), reusedCount.get(), getIdleCount());
+    }
+
+    // Enregistrer une Mat native dans la comptabilité globale
+    public static <T extends Mat> T register(T mat) {
+        if (mat == null) return null;
+        ALLOCATED_MATS.incrementAndGet();
+        long live = LIVE_MATS.incrementAndGet();
+        PEAK_MATS.accumulateAndGet(live, Math::max);
+        return mat;
+    }
+
+    // Libérer immédiatement une Mat enregistrée
+    public static void release(Mat mat) {
+        if (mat == null) return;
+        mat.release();
+        LIVE_MATS.decrementAndGet();
+        RELEASED_MATS.incrementAndGet();
+    }
+
+    public static long getLiveCount() {
+        return LIVE_MATS.get();
+    }
+
+    public static long getPeakCount() {
+        return PEAK_MATS.get();
+    }
+
+    public static long getAllocatedCount() {
+        return ALLOCATED_MATS.get();
+    }
+
+    public static long getReleasedCount() {
+        return RELEASED_MATS.get();
+    }
+
+    public static String getStatistics() {
+        return String.format("Mat natives[vivantes=%d, pic=%d, allouées=%d, libérées=%d]",
+                getLiveCount(), getPeakCount(), getAllocatedCount(), getReleasedCount());
+    }
+}
@@ -0,0 +1,17 @@
+package Vision;
+
+// Formats de modèles DNN pris en charge par le chargeur de détecteurs
+public enum ModelFormat {
+    DARKNET, // .cfg + .weights (YOLO)
+    CAFFE,   // .prototxt + .caffemodel (SSD)
+    ONNX;    // .onnx (fichier unique)
+
+    // Déduire le format depuis l'extension du fichier de poids
+    public static ModelFormat fromPath(String modelPath) {
+        String lower = modelPath.toLowerCase();
+        if (lower.endsWith(".onnx")) return ONNX;
+        if (lower.endsWith(".caffemodel")) return CAFFE;
+        if (lower.endsWith(".weights")) return DARKNET;
+        throw new IllegalArgumentException("Format de modèle inconnu: " + modelPath);
+    }
+}
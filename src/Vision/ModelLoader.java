@@ -0,0 +1,158 @@
+package Vision;
+
+import java.util.function.Consumer;
+
+// Chargement paresseux d'un modèle sur un thread d'arrière-plan.
+// Rien n'est chargé avant la première demande (request() ou get()); chaque modèle a son propre thread,
+// plusieurs modèles se chargent donc en parallèle. get() ne bloque jamais: il retourne null tant que
+// le modèle n'est pas prêt, et l'état (avec la durée de chargement ou l'erreur) reste consultable.
+public class ModelLoader<T> {
+
+    public enum State {
+        IDLE("non demandé"),
+        LOADING("chargement"),
+        READY("prêt"),
+        FAILED("échec");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Construction du modèle (exécutée sur le thread de chargement)
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private final String name;
+    private final Loader<T> loader;
+    private final Consumer<T> disposer;
+    private volatile Consumer<ModelLoader<T>> listener;
+
+    private volatile State state = State.IDLE;
+    private volatile T value;
+    private volatile Throwable failure;
+    private volatile long startNanos;
+    private volatile long loadNanos;
+    private boolean closed = false;
+
+    public ModelLoader(String name, Loader<T> loader, Consumer<T> disposer) {
+        this.name = name;
+        this.loader = loader;
+        this.disposer = disposer;
+    }
+
+    // Appelé sur le thread de chargement à la fin (succès ou échec)
+    public void setListener(Consumer<ModelLoader<T>> listener) {
+        this.listener = listener;
+    }
+
+    // Démarrer le chargement s'il n'a pas encore été demandé
+    public synchronized void request() {
+        if (state != State.IDLE || closed) return;
+        state = State.LOADING;
+        startNanos = System.nanoTime();
+        Thread thread = new Thread(this::load, "vision-model-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Modèle prêt, ou null (le chargement est alors demandé)
+    public T get() {
+        T current = value;
+        if (current == null) {
+            request();
+        }
+        return current;
+    }
+
+    // Modèle prêt, ou null, sans déclencher de chargement
+    public T peek() {
+        return value;
+    }
+
+    private void load() {
+        T loaded = null;
+        Throwable error = null;
+        try {
+            loaded = loader.load();
+        } catch (Exception | LinkageError e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            loadNanos = System.nanoTime() - startNanos;
+            if (closed) {
+                // Agent arrêté pendant le chargement
+                if (loaded != null) disposer.accept(loaded);
+                return;
+            }
+            if (loaded != null) {
+                value = loaded;
+                state = State.READY;
+            } else {
+                failure = error;
+                state = State.FAILED;
+            }
+        }
+
+        Consumer<ModelLoader<T>> current = listener;
+        if (current != null) {
+            current.accept(this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    // Durée du chargement (en cours ou terminé), en secondes
+    public double getLoadSeconds() {
+        State current = state;
+        if (current == State.IDLE) return 0;
+        long nanos = current == State.LOADING ? System.nanoTime() - startNanos : loadNanos;
+        return nanos / 1e9;
+    }
+
+    // Libérer le modèle; un chargement en cours sera libéré à sa fin
+    public void close() {
+        T current;
+        synchronized (this) {
+            closed = true;
+            current = value;
+            value = null;
+        }
+        if (current != null) {
+            disposer.accept(current);
+        }
+    }
+
+    // "visages:prêt (2.4 s)", "objets:chargement (1.1 s)", "objets:échec (fichier introuvable)"
+    @Override
+    public String toString() {
+        State current = state;
+        switch (current) {
+            case IDLE:
+                return name + ":" + current;
+            case FAILED:
+                return name + ":" + current + " (" + (failure == null ? "?" : failure.getMessage()) + ")";
+            default:
+                return String.format("%s:%s (%.1f s)", name, current, getLoadSeconds());
+        }
+    }
+}
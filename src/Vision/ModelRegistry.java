@@ -0,0 +1,127 @@
+package Vision;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Registre des fichiers de modèle partagé par tout le processus (tous les agents des conteneurs de la JVM).
+// Chaque fichier est projeté en mémoire (mmap, lecture seule) une seule fois et exposé à OpenCV comme une
+// MatOfByte qui pointe sur la projection: les réseaux sont construits par les surcharges readNetFrom*(MatOfByte)
+// au lieu de relire le disque. Seule la projection est partagée: ces surcharges copient le tampon (std::vector
+// côté JNI) et chaque Net garde sa propre copie complète des poids. Un bail n'est donc tenu que le temps de
+// la lecture du réseau, et la projection est libérée quand le dernier bail est rendu. Pour ne pas dupliquer
+// les réseaux eux-mêmes, les agents partagent les pools de détecteurs (SharedDetectorPools).
+public final class ModelRegistry {
+
+    private static final Map<String, MappedModelFile> FILES = new HashMap<>();
+    private static final AtomicLong MAPPED_COUNT = new AtomicLong();
+    private static final AtomicLong SHARED_COUNT = new AtomicLong();
+
+    private ModelRegistry() {
+    }
+
+    // Fichier projeté et son nombre de baux
+    private static class MappedModelFile {
+        final String path;
+        final long size;
+        final MappedByteBuffer buffer;
+        final MatOfByte bytes;
+        int references = 0;
+
+        MappedModelFile(String path, long size, MappedByteBuffer buffer) {
+            this.path = path;
+            this.size = size;
+            this.buffer = buffer;
+            // En-tête sur la mémoire projetée: la MatOfByte partage les données de la projection
+            // (la copie a lieu plus tard, dans readNetFrom*)
+            Mat header = new Mat(1, (int) size, CvType.CV_8UC1, buffer);
+            this.bytes = new MatOfByte(header);
+            header.release();
+        }
+    }
+
+    // Bail sur un fichier projeté; à rendre par close() une fois le réseau construit ou libéré
+    public static final class Lease implements AutoCloseable {
+        private MappedModelFile file;
+
+        private Lease(MappedModelFile file) {
+            this.file = file;
+        }
+
+        // Contenu du fichier, valide jusqu'à close()
+        public MatOfByte getBytes() {
+            return file.bytes;
+        }
+
+        @Override
+        public void close() {
+            synchronized (FILES) {
+                if (file == null) return;
+                if (--file.references == 0) {
+                    FILES.remove(file.path);
+                    file.bytes.release();
+                    // La projection elle-même est rendue par le GC avec le MappedByteBuffer
+                }
+                file = null;
+            }
+        }
+    }
+
+    // Obtenir un bail sur un fichier de modèle, en le projetant s'il ne l'est pas déjà
+    public static Lease acquire(String path) throws IOException {
+        String key = new File(path).getCanonicalPath();
+        synchronized (FILES) {
+            MappedModelFile file = FILES.get(key);
+            if (file == null) {
+                file = map(key);
+                FILES.put(key, file);
+                MAPPED_COUNT.incrementAndGet();
+            } else {
+                SHARED_COUNT.incrementAndGet();
+            }
+            file.references++;
+            return new Lease(file);
+        }
+    }
+
+    private static MappedModelFile map(String path) throws IOException {
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(path);
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r");
+             FileChannel channel = input.getChannel()) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Taille de modèle non prise en charge (" + size + " octets): " + path);
+            }
+            // La projection reste valide après la fermeture du canal
+            return new MappedModelFile(path, size, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public static String getStatistics() {
+        long bytes = 0;
+        int references = 0;
+        int files;
+        synchronized (FILES) {
+            files = FILES.size();
+            for (MappedModelFile file : FILES.values()) {
+                bytes += file.size;
+                references += file.references;
+            }
+        }
+        return String.format("Modèles projetés[fichiers=%d, %.1f Mo, baux=%d, projections=%d, lectures évitées=%d]",
+                files, bytes / (1024.0 * 1024.0), references, MAPPED_COUNT.get(), SHARED_COUNT.get());
+    }
+}
@@ -0,0 +1,157 @@
+package Vision;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Image2BlobParams;
+import org.opencv.dnn.Net;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Session d'inférence autour d'un réseau DNN déjà chargé.
+// Les couches de sortie sont résolues une seule fois, le blob d'entrée est préalloué et réécrit
+// à chaque image, et les sorties de l'exécution précédente sont libérées au début de la suivante.
+// Une passe de préchauffage au chargement absorbe la compilation des noyaux (OpenCL...).
+// Une session ne doit être utilisée que par un seul thread à la fois.
+public class ModelSession {
+
+    private final String name;
+    private final Net net;
+    private final List<String> outputNames;
+    private final Image2BlobParams blobParams;
+    private final Mat inputBlob;
+    private final List<Mat> outputs = new ArrayList<>();
+    private Size inputSize;
+    private boolean resized = false;            // Taille changée depuis le dernier forward
+    private boolean lastForwardResized = false; // Le dernier forward a payé la réallocation du réseau
+
+    // Mesures du temps de forward
+    private long lastForwardNanos = 0;
+    private long totalForwardNanos = 0;
+    private long forwardCount = 0;
+    private long batchCount = 0;
+    private long batchedImages = 0;
+
+    public ModelSession(String name, Net net, Size inputSize, double scale, Scalar mean, boolean swapRB) {
+        this.name = name;
+        this.net = net;
+        this.inputSize = inputSize;
+        this.outputNames = Collections.unmodifiableList(new ArrayList<>(net.getUnconnectedOutLayersNames()));
+        this.blobParams = new Image2BlobParams(new Scalar(scale, scale, scale), inputSize, mean, swapRB, CvType.CV_32F);
+        this.inputBlob = MatPool.register(new Mat());
+    }
+
+    // Exécuter quelques passes sur une image noire pour initialiser le backend
+    public void warmUp(int iterations) {
+        Mat dummy = MatPool.register(Mat.zeros(inputSize, CvType.CV_8UC3));
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                run(dummy);
+            }
+        } finally {
+            releaseOutputs();
+            MatPool.release(dummy);
+        }
+        System.out.println(String.format("Préchauffage du modèle %s: %d passe(s) en %.1f ms",
+                name, iterations, (System.nanoTime() - start) / 1_000_000.0));
+
+        // Ne pas compter le préchauffage dans les statistiques
+        totalForwardNanos = 0;
+        forwardCount = 0;
+    }
+
+    // Exécuter le réseau sur une image. Les Mat retournées appartiennent à la session
+    // et restent valides jusqu'au prochain appel de run(), runBatch() ou close().
+    public List<Mat> run(Mat frame) {
+        releaseOutputs();
+
+        // Réécrit le blob préalloué (aucune réallocation tant que la taille d'entrée ne change pas)
+        Dnn.blobFromImageWithParams(frame, inputBlob, blobParams);
+        return forward();
+    }
+
+    // Exécuter le réseau sur un lot d'images en un seul forward (blob [N, C, H, W]).
+    // Les sorties contiennent les résultats des N images à la suite, dans l'ordre du lot.
+    public List<Mat> runBatch(List<Mat> frames) {
+        releaseOutputs();
+        Dnn.blobFromImagesWithParams(frames, inputBlob, blobParams);
+        batchCount++;
+        batchedImages += frames.size();
+        return forward();
+    }
+
+    private List<Mat> forward() {
+        net.setInput(inputBlob);
+
+        long start = System.nanoTime();
+        net.forward(outputs, outputNames);
+        lastForwardNanos = System.nanoTime() - start;
+        lastForwardResized = resized;
+        resized = false;
+        totalForwardNanos += lastForwardNanos;
+        forwardCount++;
+
+        for (Mat output : outputs) {
+            MatPool.register(output);
+        }
+        return outputs;
+    }
+
+    private void releaseOutputs() {
+        for (Mat output : outputs) {
+            MatPool.release(output);
+        }
+        outputs.clear();
+    }
+
+    public void close() {
+        releaseOutputs();
+        MatPool.release(inputBlob);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Net getNet() {
+        return net;
+    }
+
+    public Size getInputSize() {
+        return inputSize;
+    }
+
+    // Changer la taille d'entrée: le blob préalloué est redimensionné à la prochaine exécution
+    public void setInputSize(Size inputSize) {
+        this.inputSize = inputSize;
+        blobParams.set_size(inputSize);
+        resized = true;
+    }
+
+    public List<String> getOutputNames() {
+        return outputNames;
+    }
+
+    public double getLastForwardMs() {
+        return lastForwardNanos / 1_000_000.0;
+    }
+
+    // Le dernier forward suivait un changement de taille (réallocation: mesure non représentative)
+    public boolean wasLastForwardResized() {
+        return lastForwardResized;
+    }
+
+    public double getAverageForwardMs() {
+        return forwardCount == 0 ? 0.0 : totalForwardNanos / 1_000_000.0 / forwardCount;
+    }
+
+    // Taille moyenne des lots passés par runBatch()
+    public double getAverageBatchSize() {
+        return batchCount == 0 ? 0.0 : (double) batchedImages / batchCount;
+    }
+}
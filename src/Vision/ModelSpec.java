@@ -0,0 +1,99 @@
+package Vision;
+
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+
+// Description d'un modèle de détection: fichiers, prétraitement et préférence de backend
+public class ModelSpec {
+
+    private final String name;
+    private final String decoder;   // Nom du décodeur enregistré dans DetectorFactory
+    private final String modelPath;
+    private final String configPath;
+    private final String namesPath;
+    private final ModelFormat format;
+
+    // Prétraitement (valeurs par défaut: image 416x416 normalisée sur [0, 1])
+    private Size inputSize = new Size(416, 416);
+    private double scale = 1.0 / 255.0;
+    private Scalar mean = new Scalar(0, 0, 0);
+    private boolean swapRB = true;
+
+    // "auto" pour mesurer les combinaisons backend/cible au démarrage, sinon ex: "opencv/cpu"
+    private String backend = "auto";
+
+    public ModelSpec(String name, OutputDecoder decoder, String modelPath, String configPath, String namesPath) {
+        this(name, decoder.key(), modelPath, configPath, namesPath);
+    }
+
+    public ModelSpec(String name, String decoder, String modelPath, String configPath, String namesPath) {
+        this.name = name;
+        this.decoder = decoder.trim().toLowerCase();
+        this.modelPath = modelPath;
+        this.configPath = configPath;
+        this.namesPath = namesPath;
+        this.format = ModelFormat.fromPath(modelPath);
+    }
+
+    public ModelSpec withInput(Size inputSize, double scale, Scalar mean, boolean swapRB) {
+        this.inputSize = inputSize;
+        this.scale = scale;
+        this.mean = mean;
+        this.swapRB = swapRB;
+        return this;
+    }
+
+    public ModelSpec withBackend(String backend) {
+        this.backend = backend == null || backend.trim().isEmpty() ? "auto" : backend.trim();
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDecoder() {
+        return decoder;
+    }
+
+    public ModelFormat getFormat() {
+        return format;
+    }
+
+    public String getModelPath() {
+        return modelPath;
+    }
+
+    public String getConfigPath() {
+        return configPath;
+    }
+
+    public String getNamesPath() {
+        return namesPath;
+    }
+
+    public Size getInputSize() {
+        return inputSize;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public Scalar getMean() {
+        return mean;
+    }
+
+    public boolean isSwapRB() {
+        return swapRB;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[" + format + ", " + decoder + ", " + modelPath + "]";
+    }
+}
@@ -0,0 +1,96 @@
+package Vision;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+// Porte de mouvement placée avant l'inférence.
+// L'image est réduite (160x120, niveaux de gris) et comparée à l'image de référence de la dernière
+// inférence: si la part de pixels modifiés reste sous le seuil, la scène est considérée statique
+// et les détections précédentes sont réutilisées sans forward. Une inférence est tout de même forcée
+// après 'refreshMs' pour rattraper les changements lents (éclairage, objet immobile apparu).
+// Une instance n'est utilisée que depuis le thread de l'étage d'inférence.
+public class MotionGate {
+
+    private static final Size GATE_SIZE = new Size(160, 120);
+    private static final Size BLUR_SIZE = new Size(5, 5);
+
+    private final int pixelThreshold;
+    private final double changedRatio;
+    private final long refreshMs;
+
+    // Tampons réduits réutilisés d'une image à l'autre
+    private final Mat small = MatPool.register(new Mat());
+    private final Mat gray = MatPool.register(new Mat());
+    private final Mat reference = MatPool.register(new Mat());
+    private final Mat difference = MatPool.register(new Mat());
+
+    private boolean hasReference = false;
+    private long lastInferenceTimestamp = 0;
+    private double lastChangedRatio = 0;
+    private volatile long frameCount = 0;     // Lus par le thread de surveillance
+    private volatile long skippedCount = 0;
+
+    public MotionGate(int pixelThreshold, double changedRatio, long refreshMs) {
+        this.pixelThreshold = pixelThreshold;
+        this.changedRatio = changedRatio;
+        this.refreshMs = refreshMs;
+    }
+
+    // Retourne vrai si l'image doit passer par les réseaux, faux si les détections précédentes suffisent.
+    // 'force' impose l'inférence (changement de mode, pas encore de détections...).
+    public boolean shouldInfer(Mat frame, long timestamp, boolean force) {
+        frameCount++;
+
+        Imgproc.resize(frame, small, GATE_SIZE, 0, 0, Imgproc.INTER_AREA);
+        Imgproc.cvtColor(small, gray, Imgproc.COLOR_BGR2GRAY);
+        Imgproc.GaussianBlur(gray, gray, BLUR_SIZE, 0);
+
+        if (hasReference) {
+            Core.absdiff(gray, reference, difference);
+            Imgproc.threshold(difference, difference, pixelThreshold, 255, Imgproc.THRESH_BINARY);
+            lastChangedRatio = (double) Core.countNonZero(difference) / difference.total();
+        } else {
+            lastChangedRatio = 1;
+        }
+
+        boolean expired = timestamp - lastInferenceTimestamp >= refreshMs;
+        if (!force && !expired && lastChangedRatio < changedRatio) {
+            skippedCount++;
+            return false;
+        }
+
+        // La référence devient l'image de cette inférence: les petits changements ne s'accumulent pas en silence
+        gray.copyTo(reference);
+        hasReference = true;
+        lastInferenceTimestamp = timestamp;
+        return true;
+    }
+
+    // Part des images pour lesquelles le forward a été évité
+    public double getSkipRatio() {
+        return frameCount == 0 ? 0 : (double) skippedCount / frameCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public double getLastChangedRatio() {
+        return lastChangedRatio;
+    }
+
+    public void close() {
+        MatPool.release(small);
+        MatPool.release(gray);
+        MatPool.release(reference);
+        MatPool.release(difference);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mouvement[évitées=%d/%d (%.0f%%), variation=%.2f%%]",
+                skippedCount, frameCount, getSkipRatio() * 100, lastChangedRatio * 100);
+    }
+}
@@ -0,0 +1,324 @@
+package Vision;
+
+import java.util.Arrays;
+
+// Suivi multi-objets: association IoU / centroïde et filtre de Kalman à vitesse constante.
+// Chaque piste reçoit un identifiant entier stable tant que l'objet reste visible; les pistes sont
+// stockées dans des tableaux primitifs de capacité bornée (aucune allocation par image).
+// Utilisation par image: reset(), add() pour chaque détection, puis update(horodatage);
+// getTrackId(i) donne ensuite la piste associée à la détection i.
+// Une instance ne doit servir qu'à un seul thread.
+public class MultiObjectTracker {
+
+    // Indices de piste et de détection codés sur 16 bits dans les paires d'association:
+    // au plus MAX_INDEX pistes, et les détections au-delà de MAX_INDEX dans une image restent sans piste
+    public static final int MAX_INDEX = 0xFFFF;
+
+    private static final float MIN_IOU = 0.3f;              // Recouvrement minimal pour l'association principale
+    private static final float CENTROID_GATE = 0.5f;        // Repli: distance des centres < 0.5 x diagonale de la piste
+    private static final float MEASUREMENT_NOISE = 25f;     // Variance de la position mesurée (px²)
+    private static final float ACCELERATION_NOISE = 2500f;  // Variance de l'accélération (px²/s⁴)
+    private static final float INITIAL_VELOCITY_VARIANCE = 10000f;
+    private static final float SIZE_SMOOTHING = 0.5f;       // Lissage de la largeur / hauteur
+    private static final float MAX_DT_SECONDS = 1f;
+
+    private final int maxTracks;
+    private final long maxAgeMs;
+    private int nextTrackId = 1;
+
+    // Pistes actives (struct-of-arrays)
+    private int trackCount = 0;
+    private final int[] trackIds;
+    private final int[] trackClassIds;
+    private final float[] centerX, centerY, velocityX, velocityY, widths, heights;
+    private final float[] covPosition, covCross, covVelocity; // Covariance 2x2 commune aux deux axes
+    private final float[] trackScores;
+    private final long[] lastSeen;
+    private final int[] hits;
+    private final boolean[] trackMatched;
+
+    // Détections de l'image courante
+    private int detectionCount = 0;
+    private int[] detectionClassIds = new int[64];
+    private float[] detectionScores = new float[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] ws = new int[64];
+    private int[] hs = new int[64];
+    private int[] assignedTrackIds = new int[64];
+
+    // Tampon de tri des paires (piste, détection)
+    private long[] pairs = new long[256];
+
+    private long lastTimestamp = -1;
+    private long createdCount = 0;
+    private long removedCount = 0;
+
+    public MultiObjectTracker(int maxTracks, long maxAgeMs) {
+        this.maxTracks = Math.max(1, Math.min(maxTracks, MAX_INDEX));
+        this.maxAgeMs = maxAgeMs;
+        trackIds = new int[this.maxTracks];
+        trackClassIds = new int[this.maxTracks];
+        centerX = new float[this.maxTracks];
+        centerY = new float[this.maxTracks];
+        velocityX = new float[this.maxTracks];
+        velocityY = new float[this.maxTracks];
+        widths = new float[this.maxTracks];
+        heights = new float[this.maxTracks];
+        covPosition = new float[this.maxTracks];
+        covCross = new float[this.maxTracks];
+        covVelocity = new float[this.maxTracks];
+        trackScores = new float[this.maxTracks];
+        lastSeen = new long[this.maxTracks];
+        hits = new int[this.maxTracks];
+        trackMatched = new boolean[this.maxTracks];
+    }
+
+    public void reset() {
+        detectionCount = 0;
+    }
+
+    // Ajouter une détection de l'image courante, retourne son indice (-1 au-delà de MAX_INDEX détections)
+    public int add(int classId, float score, int x, int y, int width, int height) {
+        if (detectionCount >= MAX_INDEX) return -1;
+        if (detectionCount == xs.length) {
+            int capacity = detectionCount * 2;
+            detectionClassIds = Arrays.copyOf(detectionClassIds, capacity);
+            detectionScores = Arrays.copyOf(detectionScores, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            ws = Arrays.copyOf(ws, capacity);
+            hs = Arrays.copyOf(hs, capacity);
+            assignedTrackIds = Arrays.copyOf(assignedTrackIds, capacity);
+        }
+        detectionClassIds[detectionCount] = classId;
+        detectionScores[detectionCount] = score;
+        xs[detectionCount] = x;
+        ys[detectionCount] = y;
+        ws[detectionCount] = width;
+        hs[detectionCount] = height;
+        assignedTrackIds[detectionCount] = -1;
+        return detectionCount++;
+    }
+
+    // Prédire les pistes à 'timestamp', les associer aux détections puis corriger, créer et expirer
+    public void update(long timestamp) {
+        float dt = lastTimestamp < 0 ? 0f : Math.min(MAX_DT_SECONDS, (timestamp - lastTimestamp) / 1000f);
+        lastTimestamp = timestamp;
+
+        for (int t = 0; t < trackCount; t++) {
+            predict(t, dt);
+            trackMatched[t] = false;
+        }
+
+        // Association gloutonne: d'abord par IoU décroissant, puis repli par centres proches
+        associate(true);
+        associate(false);
+
+        // Nouvelles pistes pour les détections restées seules
+        for (int d = 0; d < detectionCount; d++) {
+            if (assignedTrackIds[d] < 0 && trackCount < maxTracks) {
+                assignedTrackIds[d] = createTrack(d, timestamp);
+            }
+        }
+
+        // Expirer les pistes non vues depuis trop longtemps (compactage par échange avec la dernière)
+        for (int t = trackCount - 1; t >= 0; t--) {
+            if (!trackMatched[t] && timestamp - lastSeen[t] > maxAgeMs) {
+                removeTrack(t);
+            }
+        }
+    }
+
+    private void associate(boolean byIou) {
+        int pairCount = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (trackMatched[t]) continue;
+            float tx = centerX[t] - widths[t] / 2;
+            float ty = centerY[t] - heights[t] / 2;
+            float diagonal = (float) Math.hypot(widths[t], heights[t]);
+            for (int d = 0; d < detectionCount; d++) {
+                if (assignedTrackIds[d] >= 0 || detectionClassIds[d] != trackClassIds[t]) continue;
+
+                float affinity;
+                if (byIou) {
+                    affinity = iou(tx, ty, widths[t], heights[t], xs[d], ys[d], ws[d], hs[d]);
+                    if (affinity < MIN_IOU) continue;
+                } else {
+                    float distance = (float) Math.hypot(xs[d] + ws[d] / 2f - centerX[t], ys[d] + hs[d] / 2f - centerY[t]);
+                    if (distance > CENTROID_GATE * diagonal) continue;
+                    affinity = 1f - distance / (CENTROID_GATE * diagonal + 1f);
+                }
+
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, pairCount * 2);
+                }
+                // (bits de l'affinité << 32) | (piste << 16) | détection: tri sans boxing
+                pairs[pairCount++] = ((long) Float.floatToIntBits(affinity) << 32) | ((long) t << 16) | d;
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+
+        for (int p = pairCount - 1; p >= 0; p--) {
+            int t = (int) (pairs[p] >>> 16) & 0xFFFF;
+            int d = (int) pairs[p] & 0xFFFF;
+            if (trackMatched[t] || assignedTrackIds[d] >= 0) continue;
+            correct(t, d);
+            trackMatched[t] = true;
+            assignedTrackIds[d] = trackIds[t];
+        }
+    }
+
+    private void predict(int t, float dt) {
+        centerX[t] += velocityX[t] * dt;
+        centerY[t] += velocityY[t] * dt;
+
+        float dt2 = dt * dt;
+        covPosition[t] += dt * (2 * covCross[t] + dt * covVelocity[t]) + ACCELERATION_NOISE * dt2 * dt2 / 4;
+        covCross[t] += dt * covVelocity[t] + ACCELERATION_NOISE * dt2 * dt / 2;
+        covVelocity[t] += ACCELERATION_NOISE * dt2;
+    }
+
+    private void correct(int t, int d) {
+        float innovation = covPosition[t] + MEASUREMENT_NOISE;
+        float gainPosition = covPosition[t] / innovation;
+        float gainVelocity = covCross[t] / innovation;
+
+        float residualX = xs[d] + ws[d] / 2f - centerX[t];
+        float residualY = ys[d] + hs[d] / 2f - centerY[t];
+        centerX[t] += gainPosition * residualX;
+        centerY[t] += gainPosition * residualY;
+        velocityX[t] += gainVelocity * residualX;
+        velocityY[t] += gainVelocity * residualY;
+
+        covVelocity[t] -= gainVelocity * covCross[t];
+        covCross[t] *= 1 - gainPosition;
+        covPosition[t] *= 1 - gainPosition;
+
+        widths[t] += SIZE_SMOOTHING * (ws[d] - widths[t]);
+        heights[t] += SIZE_SMOOTHING * (hs[d] - heights[t]);
+        trackScores[t] = detectionScores[d];
+        lastSeen[t] = lastTimestamp;
+        hits[t]++;
+    }
+
+    private int createTrack(int d, long timestamp) {
+        int t = trackCount++;
+        trackIds[t] = nextTrackId++;
+        if (nextTrackId == Integer.MAX_VALUE) {
+            nextTrackId = 1;
+        }
+        trackClassIds[t] = detectionClassIds[d];
+        centerX[t] = xs[d] + ws[d] / 2f;
+        centerY[t] = ys[d] + hs[d] / 2f;
+        velocityX[t] = 0;
+        velocityY[t] = 0;
+        widths[t] = ws[d];
+        heights[t] = hs[d];
+        covPosition[t] = MEASUREMENT_NOISE;
+        covCross[t] = 0;
+        covVelocity[t] = INITIAL_VELOCITY_VARIANCE;
+        trackScores[t] = detectionScores[d];
+        lastSeen[t] = timestamp;
+        hits[t] = 1;
+        trackMatched[t] = true;
+        createdCount++;
+        return trackIds[t];
+    }
+
+    private void removeTrack(int t) {
+        int last = --trackCount;
+        if (t != last) {
+            trackIds[t] = trackIds[last];
+            trackClassIds[t] = trackClassIds[last];
+            centerX[t] = centerX[last];
+            centerY[t] = centerY[last];
+            velocityX[t] = velocityX[last];
+            velocityY[t] = velocityY[last];
+            widths[t] = widths[last];
+            heights[t] = heights[last];
+            covPosition[t] = covPosition[last];
+            covCross[t] = covCross[last];
+            covVelocity[t] = covVelocity[last];
+            trackScores[t] = trackScores[last];
+            lastSeen[t] = lastSeen[last];
+            hits[t] = hits[last];
+            trackMatched[t] = trackMatched[last];
+        }
+        removedCount++;
+    }
+
+    private static float iou(float ax, float ay, float aw, float ah, float bx, float by, float bw, float bh) {
+        float left = Math.max(ax, bx);
+        float top = Math.max(ay, by);
+        float right = Math.min(ax + aw, bx + bw);
+        float bottom = Math.min(ay + ah, by + bh);
+        if (right <= left || bottom <= top) return 0f;
+        float intersection = (right - left) * (bottom - top);
+        return intersection / (aw * ah + bw * bh - intersection);
+    }
+
+    // Piste associée à la détection d'indice i (-1 si la capacité de pistes était atteinte)
+    public int getTrackId(int detection) {
+        return detection < detectionCount ? assignedTrackIds[detection] : -1;
+    }
+
+    public int getDetectionCount() {
+        return detectionCount;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    // Accès aux pistes actives par indice (0..getTrackCount()-1), positions filtrées
+    public int getTrackIdAt(int t) {
+        return trackIds[t];
+    }
+
+    public int getTrackClassId(int t) {
+        return trackClassIds[t];
+    }
+
+    public float getTrackX(int t) {
+        return centerX[t] - widths[t] / 2;
+    }
+
+    public float getTrackY(int t) {
+        return centerY[t] - heights[t] / 2;
+    }
+
+    public float getTrackWidth(int t) {
+        return widths[t];
+    }
+
+    public float getTrackHeight(int t) {
+        return heights[t];
+    }
+
+    public float getTrackVelocityX(int t) {
+        return velocityX[t];
+    }
+
+    public float getTrackVelocityY(int t) {
+        return velocityY[t];
+    }
+
+    public float getTrackScore(int t) {
+        return trackScores[t];
+    }
+
+    public long getTrackLastSeen(int t) {
+        return lastSeen[t];
+    }
+
+    public int getTrackHits(int t) {
+        return hits[t];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pistes[actives=%d/%d, créées=%d, expirées=%d]",
+                trackCount, maxTracks, createdCount, removedCount);
+    }
+}
@@ -0,0 +1,142 @@
+package Vision;
+
+import java.util.Arrays;
+
+// Suppression des non-maxima (NMS) par classe.
+// Les candidats sont accumulés dans des tableaux primitifs réutilisés d'une image à l'autre:
+// reset(), add() pour chaque candidat, puis apply(). Une instance ne doit servir qu'à un seul thread.
+public class NonMaxSuppression {
+
+    private final float iouThreshold;
+    private final int topK;
+
+    // Candidats de l'image courante
+    private int count = 0;
+    private int[] classIds = new int[64];
+    private float[] scores = new float[64];
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private int[] widths = new int[64];
+    private int[] heights = new int[64];
+
+    // Tampons de travail
+    private long[] order = new long[64];
+    private boolean[] suppressed = new boolean[64];
+    private int[] kept = new int[64];
+    private int keptCount = 0;
+
+    public NonMaxSuppression(float iouThreshold, int topK) {
+        this.iouThreshold = iouThreshold;
+        this.topK = Math.max(1, topK);
+    }
+
+    public void reset() {
+        count = 0;
+        keptCount = 0;
+    }
+
+    // Ajouter un candidat, retourne son indice
+    public int add(int classId, float score, int x, int y, int width, int height) {
+        if (count == classIds.length) {
+            grow(count * 2);
+        }
+        classIds[count] = classId;
+        scores[count] = score;
+        xs[count] = x;
+        ys[count] = y;
+        widths[count] = width;
+        heights[count] = height;
+        return count++;
+    }
+
+    // Exécuter la NMS: retourne le nombre de candidats conservés (au plus topK),
+    // accessibles par score décroissant via getKept(k)
+    public int apply() {
+        // Tri des indices par score croissant sans boxing: (bits du score << 32) | indice.
+        // Les scores positifs gardent leur ordre une fois convertis en bits IEEE 754.
+        for (int i = 0; i < count; i++) {
+            float score = scores[i] > 0f ? scores[i] : 0f;
+            order[i] = ((long) Float.floatToIntBits(score) << 32) | i;
+            suppressed[i] = false;
+        }
+        Arrays.sort(order, 0, count);
+
+        keptCount = 0;
+        for (int r = count - 1; r >= 0 && keptCount < topK; r--) {
+            int i = (int) order[r];
+            if (suppressed[i]) continue;
+            kept[keptCount++] = i;
+
+            // Supprimer les boîtes de même classe qui recouvrent trop la boîte retenue
+            for (int q = r - 1; q >= 0; q--) {
+                int j = (int) order[q];
+                if (suppressed[j] || classIds[j] != classIds[i]) continue;
+                if (iou(xs[i], ys[i], widths[i], heights[i], xs[j], ys[j], widths[j], heights[j]) > iouThreshold) {
+                    suppressed[j] = true;
+                }
+            }
+        }
+        return keptCount;
+    }
+
+    public int getKept(int k) {
+        return kept[k];
+    }
+
+    public int getKeptCount() {
+        return keptCount;
+    }
+
+    public int getCandidateCount() {
+        return count;
+    }
+
+    public int getClassId(int i) {
+        return classIds[i];
+    }
+
+    public float getScore(int i) {
+        return scores[i];
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public int getWidth(int i) {
+        return widths[i];
+    }
+
+    public int getHeight(int i) {
+        return heights[i];
+    }
+
+    // Intersection sur union de deux boîtes (x, y, largeur, hauteur)
+    public static float iou(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        int left = Math.max(ax, bx);
+        int top = Math.max(ay, by);
+        int right = Math.min(ax + aw, bx + bw);
+        int bottom = Math.min(ay + ah, by + bh);
+        if (right <= left || bottom <= top) return 0f;
+
+        long intersection = (long) (right - left) * (bottom - top);
+        long union = (long) aw * ah + (long) bw * bh - intersection;
+        return union <= 0 ? 0f : (float) intersection / union;
+    }
+
+    private void grow(int capacity) {
+        classIds = Arrays.copyOf(classIds, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        order = new long[capacity];
+        suppressed = new boolean[capacity];
+        kept = new int[capacity];
+    }
+}
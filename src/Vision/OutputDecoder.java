@@ -0,0 +1,13 @@
+package Vision;
+
+// Décodeurs de sorties fournis avec le projet, enregistrés par défaut dans DetectorFactory sous leur
+// nom en minuscules ("yolo", "ssd"). D'autres décodeurs s'enregistrent par DetectorFactory.register.
+public enum OutputDecoder {
+    YOLO, // Lignes [cx, cy, w, h, objectness, scores de classe...]
+    SSD;  // Couche DetectionOutput [1, 1, N, 7]: [image, classe, confiance, x1, y1, x2, y2]
+
+    // Nom d'enregistrement du décodeur
+    public String key() {
+        return name().toLowerCase();
+    }
+}
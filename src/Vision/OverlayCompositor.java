@@ -0,0 +1,125 @@
+package Vision;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+
+// Dessin des informations sur l'image affichée en une seule passe.
+// Les couleurs de classe sont précalculées, l'horodatage n'est reformaté qu'une fois par seconde et
+// les étiquettes sont construites dans un tampon réutilisé. Le fond des étiquettes est éclairci
+// directement dans leur rectangle (ROI) au lieu d'un mélange sur toute l'image: le coût reste
+// proportionnel au nombre de boîtes, pas à la taille de l'image.
+// Une instance ne doit servir qu'à un seul thread (l'étage de rendu).
+public class OverlayCompositor {
+
+    private static final Scalar FACE_COLOR = new Scalar(0, 255, 0);
+    private static final Scalar HEADER_COLOR = new Scalar(0, 165, 255);
+    private static final Scalar TEXT_COLOR = new Scalar(255, 255, 255);
+    // Équivalent du fond (40, 40, 40) mélangé à 40%: +16 sur chaque canal
+    private static final Scalar LABEL_SHADE = new Scalar(16, 16, 16);
+    private static final int LABEL_HEIGHT = 25;
+    private static final int LABEL_CHAR_WIDTH = 8;
+
+    private final Scalar[] palette;
+    private final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final char decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+    private final StringBuilder label = new StringBuilder(64);
+    private final Rect bounds = new Rect();          // Boîte et position d'étiquette réutilisées
+    private final Point labelOrigin = new Point();
+
+    private long cachedSecond = -1;
+    private String cachedTimestamp = "";
+    private int cachedCount = -1;
+    private String cachedCountText = "";
+
+    public OverlayCompositor(int classCount) {
+        // Une couleur stable par classe (même graine que l'ancien calcul à la volée)
+        palette = new Scalar[Math.max(1, classCount)];
+        for (int classId = 0; classId < palette.length; classId++) {
+            Random random = new Random(classId * 100);
+            int r = random.nextInt(256);
+            int g = random.nextInt(256);
+            int b = random.nextInt(256);
+            palette[classId] = new Scalar(r, g, b);
+        }
+    }
+
+    // Couleur d'une classe; les identifiants négatifs (visages) sont dessinés en vert
+    public Scalar getClassColor(int classId) {
+        if (classId < 0) return FACE_COLOR;
+        return palette[classId % palette.length];
+    }
+
+    // En-tête: compteur d'objets, mode et horodatage de la capture
+    public void drawHeader(Mat frame, int detectionCount, String modeName, long timestamp) {
+        if (detectionCount != cachedCount) {
+            cachedCount = detectionCount;
+            cachedCountText = "Objets détectés: " + detectionCount;
+        }
+        Imgproc.putText(frame, cachedCountText, new Point(10, 25),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 0.7, HEADER_COLOR, 2);
+
+        Imgproc.putText(frame, modeName, new Point(10, frame.rows() - 10),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 0.5, HEADER_COLOR, 1);
+
+        long second = timestamp / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = timestampFormat.format(new Date(timestamp));
+        }
+        Imgproc.putText(frame, cachedTimestamp, new Point(frame.cols() - 200, 25),
+                Imgproc.FONT_HERSHEY_SIMPLEX, 0.5, TEXT_COLOR, 1);
+    }
+
+    // Boîte et étiquette "type: distance cm (confiance%)" d'une détection
+    public void drawDetection(Mat frame, int x, int y, int width, int height, int classId, String type,
+                              double distance, double confidence) {
+        bounds.x = x;
+        bounds.y = y;
+        bounds.width = width;
+        bounds.height = height;
+        Imgproc.rectangle(frame, bounds, getClassColor(classId), 2);
+
+        label.setLength(0);
+        label.append(type).append(": ");
+        appendOneDecimal(distance);
+        label.append(" cm (");
+        appendOneDecimal(confidence * 100);
+        label.append("%)");
+        String text = label.toString();
+
+        // Éclaircir le fond de l'étiquette dans son seul rectangle, borné à l'image
+        int left = Math.max(0, bounds.x - 2);
+        int top = Math.max(0, bounds.y - 30);
+        int right = Math.min(frame.cols(), bounds.x - 2 + text.length() * LABEL_CHAR_WIDTH);
+        int bottom = Math.min(frame.rows(), bounds.y - 30 + LABEL_HEIGHT);
+        if (right > left && bottom > top) {
+            Mat roi = frame.submat(top, bottom, left, right);
+            Core.add(roi, LABEL_SHADE, roi);
+            roi.release();
+        }
+
+        labelOrigin.x = bounds.x;
+        labelOrigin.y = bounds.y - 10;
+        Imgproc.putText(frame, text, labelOrigin,
+                Imgproc.FONT_HERSHEY_SIMPLEX, 0.5, TEXT_COLOR, 1);
+    }
+
+    // Équivalent de "%.1f" (séparateur décimal de la langue courante) sans String.format
+    private void appendOneDecimal(double value) {
+        long tenths = Math.round(value * 10);
+        if (tenths < 0) {
+            label.append('-');
+            tenths = -tenths;
+        }
+        label.append(tenths / 10).append(decimalSeparator).append(tenths % 10);
+    }
+}
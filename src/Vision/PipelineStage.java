@@ -0,0 +1,211 @@
+package Vision;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Étage du pipeline de vision: une file bornée en entrée et un thread de travail dédié.
+// Chaque élément est transformé par le processeur puis transmis à l'étage suivant.
+// L'étage possède l'élément jusqu'au retour normal du processeur: si le processeur lève une exception,
+// il le libère par son gestionnaire de rejet. Le résultat appartient ensuite au consommateur aval, qui le
+// libère lui-même s'il échoue (il a pu le transmettre plus loin). Un processeur terminal libère l'élément.
+public class PipelineStage<I, O> {
+
+    private final String name;
+    private final BlockingQueue<I> queue;
+    private final DropPolicy dropPolicy;
+    private final Function<I, O> processor;
+    private final Consumer<I> dropHandler;
+    private volatile Consumer<O> downstream;
+
+    private volatile boolean running = false;
+    private Thread worker;
+
+    // Compteurs d'activité de l'étage
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    public PipelineStage(String name, int capacity, DropPolicy dropPolicy,
+                         Function<I, O> processor, Consumer<I> dropHandler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacité de l'étage " + name + " doit être >= 1");
+        }
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.dropPolicy = dropPolicy;
+        this.processor = processor;
+        this.dropHandler = dropHandler;
+    }
+
+    // Définir l'étage (ou le consommateur) qui reçoit les résultats de cet étage
+    public void connectTo(Consumer<O> downstream) {
+        this.downstream = downstream;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        worker = new Thread(this::runLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+
+        // Libérer les éléments encore en attente
+        I pending;
+        while ((pending = queue.poll()) != null) {
+            drop(pending);
+        }
+    }
+
+    // Soumettre un élément à l'étage selon sa politique de rejet.
+    // Retourne false si l'élément a été rejeté.
+    public boolean offer(I item) {
+        if (!running) {
+            drop(item);
+            return false;
+        }
+
+        switch (dropPolicy) {
+            case BLOCK:
+                try {
+                    while (running) {
+                        if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                            return true;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                drop(item);
+                return false;
+
+            case DROP_NEWEST:
+                if (queue.offer(item)) {
+                    return true;
+                }
+                drop(item);
+                return false;
+
+            case COALESCE_LATEST:
+                // Les éléments d'un étage sont tous de même nature: seul le plus récent attend
+                I pending;
+                while ((pending = queue.poll()) != null) {
+                    drop(pending);
+                }
+                while (!queue.offer(item)) {
+                    I oldest = queue.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+                return true;
+
+            case DROP_OLDEST:
+            default:
+                while (!queue.offer(item)) {
+                    I oldest = queue.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+                return true;
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            I item;
+            try {
+                item = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (item == null) continue;
+
+            long start = System.nanoTime();
+            boolean processed = false;
+            try {
+                O result = processor.apply(item);
+                processed = true;
+                Consumer<O> next = downstream;
+                if (result != null && next != null) {
+                    next.accept(result);
+                }
+            } catch (Exception e) {
+                logError("Erreur dans l'étage ", e);
+                // Échec du processeur: l'élément appartient encore à l'étage, le rendre par le gestionnaire
+                // de rejet (tampons, lots). Échec en aval: le consommateur a pu transmettre le résultat, il
+                // lui revient de le libérer
+                if (!processed) {
+                    drop(item);
+                }
+            } finally {
+                busyNanos.addAndGet(System.nanoTime() - start);
+                processedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void drop(I item) {
+        droppedCount.incrementAndGet();
+        if (dropHandler != null) {
+            try {
+                dropHandler.accept(item);
+            } catch (Exception e) {
+                logError("Erreur lors du rejet dans l'étage ", e);
+            }
+        }
+    }
+
+    private void logError(String context, Exception e) {
+        System.err.println("⚠️ " + context + name + ": " + e);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    // Temps moyen de traitement d'un élément (ms)
+    public double getAverageProcessingMs() {
+        long count = processedCount.get();
+        return count == 0 ? 0.0 : busyNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[file=%d, traités=%d, rejetés=%d, moy=%.1f ms]",
+                name, getQueueSize(), getProcessedCount(), getDroppedCount(), getAverageProcessingMs());
+    }
+}
@@ -0,0 +1,80 @@
+package Vision;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Voies de priorité pour l'envoi des détections.
+// Une détection est urgente si son type figure dans les règles, qu'elle est plus proche que la distance
+// de sa règle et que sa confiance atteint le minimum: elle part aussitôt sur la voie urgente, sans limite
+// de rythme. Les autres suivent la voie courante, regroupée et envoyée au plus une fois par fenêtre.
+// Chaque voie tient un histogramme de sa latence d'envoi (capture -> envoi).
+public class PriorityLanes {
+
+    public static final int URGENT = 0;
+    public static final int ROUTINE = 1;
+    public static final int LANE_COUNT = 2;
+    private static final String[] LANE_NAMES = {"urgente", "courante"};
+
+    private final Map<String, Double> urgentDistances; // Type -> distance maximale (cm); vide: aucune urgence
+    private final boolean allTypes;
+    private final double defaultDistanceCm;
+    private final float minConfidence;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[LANE_COUNT];
+
+    // rules: "personne:200,visage,voiture:500" (distance par défaut si absente), "tous" ou "aucune"
+    public PriorityLanes(String rules, double defaultDistanceCm, float minConfidence) {
+        this.defaultDistanceCm = defaultDistanceCm;
+        this.minConfidence = minConfidence;
+        this.urgentDistances = new HashMap<>();
+        boolean all = false;
+        for (String rule : rules.split(",")) {
+            rule = rule.trim();
+            if (rule.isEmpty() || rule.equalsIgnoreCase("aucune")) continue;
+            if (rule.equalsIgnoreCase("tous")) {
+                all = true;
+                continue;
+            }
+            int separator = rule.lastIndexOf(':');
+            if (separator > 0) {
+                urgentDistances.put(rule.substring(0, separator).trim(),
+                        Double.parseDouble(rule.substring(separator + 1).trim()));
+            } else {
+                urgentDistances.put(rule, defaultDistanceCm);
+            }
+        }
+        this.allTypes = all;
+        for (int lane = 0; lane < LANE_COUNT; lane++) {
+            latencies[lane] = new LatencyHistogram();
+        }
+    }
+
+    // Voie d'une détection du lot
+    public int classify(DetectionBatch detections, int i) {
+        if (detections.getConfidence(i) < minConfidence) return ROUTINE;
+        Double maxDistance = urgentDistances.get(detections.getType(i));
+        if (maxDistance == null) {
+            if (!allTypes) return ROUTINE;
+            maxDistance = defaultDistanceCm;
+        }
+        return detections.getDistance(i) <= maxDistance ? URGENT : ROUTINE;
+    }
+
+    public LatencyHistogram getLatency(int lane) {
+        return latencies[lane];
+    }
+
+    public static String getLaneName(int lane) {
+        return LANE_NAMES[lane];
+    }
+
+    // "voies[urgente: n=4, ... | courante: n=38, ...]"
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder("voies[");
+        for (int lane = 0; lane < LANE_COUNT; lane++) {
+            if (lane > 0) description.append(" | ");
+            description.append(LANE_NAMES[lane]).append(": ").append(latencies[lane]);
+        }
+        return description.append(']').toString();
+    }
+}
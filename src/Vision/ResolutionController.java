@@ -0,0 +1,99 @@
+package Vision;
+
+// Contrôleur de la résolution d'entrée d'un réseau piloté par un budget de temps par image.
+// La taille (carrée, multiple de 32) descend dès que la latence lissée dépasse le budget et ne remonte
+// que si la latence prévue à la taille supérieure reste nettement sous le budget (hystérésis),
+// ce qui évite les oscillations entre deux tailles voisines.
+// Un contrôleur peut piloter plusieurs instances du réseau: chacune ne passe à la nouvelle taille qu'à sa
+// prochaine image, si bien que seules les mesures prises à la taille courante (hors réallocation) comptent.
+public class ResolutionController {
+
+    public static final int MIN_SIZE = 256;
+    public static final int MAX_SIZE = 608;
+    public static final int STEP = 32;
+
+    private static final double SMOOTHING = 0.2;        // Poids d'une nouvelle mesure dans la moyenne lissée
+    private static final double HEADROOM_RATIO = 0.85;  // Remonter seulement si la prévision < 85% du budget
+    private static final int MIN_SAMPLES = 8;           // Mesures nécessaires avant une nouvelle décision
+
+    private final double targetMs;
+    private int currentSize;
+    private double smoothedMs = -1;
+    private int samples = 0;
+    private long changeCount = 0;
+    private long discardedCount = 0;
+
+    public ResolutionController(double targetMs, int initialSize) {
+        this.targetMs = targetMs;
+        this.currentSize = snap(initialSize);
+    }
+
+    // Enregistrer le temps de forward d'une instance, mesuré à 'inputSize'; 'reallocated': la passe suivait
+    // un changement de taille de l'instance. Retourne la taille à utiliser pour l'image suivante.
+    public synchronized int record(int inputSize, double forwardMs, boolean reallocated) {
+        // Instance pas encore passée à la taille courante, ou passe de réallocation: mesure écartée
+        if (inputSize != currentSize || reallocated) {
+            discardedCount++;
+            return currentSize;
+        }
+        samples++;
+
+        smoothedMs = smoothedMs < 0 ? forwardMs : smoothedMs + SMOOTHING * (forwardMs - smoothedMs);
+        if (samples < MIN_SAMPLES) return currentSize;
+
+        if (smoothedMs > targetMs && currentSize > MIN_SIZE) {
+            // Le coût est à peu près proportionnel à la surface: réduire selon l'excès, d'au moins un pas
+            int next = snap((int) (currentSize * Math.sqrt(targetMs / smoothedMs)));
+            if (next >= currentSize) {
+                next = currentSize - STEP;
+            }
+            return change(next);
+        }
+
+        if (currentSize < MAX_SIZE) {
+            int next = currentSize + STEP;
+            double predictedMs = smoothedMs * ((double) next * next) / ((double) currentSize * currentSize);
+            if (predictedMs < targetMs * HEADROOM_RATIO) {
+                return change(next);
+            }
+        }
+
+        return currentSize;
+    }
+
+    private int change(int size) {
+        currentSize = snap(size);
+        smoothedMs = -1;
+        samples = 0;
+        changeCount++;
+        return currentSize;
+    }
+
+    // Arrondir au multiple de 32 inférieur dans [MIN_SIZE, MAX_SIZE]
+    public static int snap(int size) {
+        int snapped = (size / STEP) * STEP;
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, snapped));
+    }
+
+    public synchronized int getCurrentSize() {
+        return currentSize;
+    }
+
+    public synchronized double getSmoothedMs() {
+        return smoothedMs;
+    }
+
+    public synchronized long getChangeCount() {
+        return changeCount;
+    }
+
+    public double getTargetMs() {
+        return targetMs;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("résolution[%dx%d, latence=%.1f/%.0f ms, changements=%d, mesures écartées=%d]",
+                currentSize, currentSize, Math.max(0, smoothedMs), targetMs, changeCount, discardedCount);
+    }
+}
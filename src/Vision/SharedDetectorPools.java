@@ -0,0 +1,145 @@
+package Vision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Registre des pools de détecteurs locaux partagé par tout le processus (tous les agents des conteneurs de la JVM).
+// Les agents qui décrivent le même modèle (mêmes fichiers, décodeur, prétraitement et backend demandé) reçoivent
+// le même pool: les réseaux ne sont chargés et préchauffés qu'une fois, chaque agent y enregistre ses flux et
+// les instances les servent à tour de rôle. Le pool est compté en références et fermé quand le dernier agent le
+// rend. Le premier agent fixe les réglages du pool (nombre d'instances, état associé par attach()).
+public final class SharedDetectorPools {
+
+    private static final Map<String, SharedPool> BY_KEY = new HashMap<>();
+    private static final Map<DetectorPool, SharedPool> BY_POOL = new IdentityHashMap<>();
+    private static final AtomicLong CREATED_COUNT = new AtomicLong();
+    private static final AtomicLong SHARED_COUNT = new AtomicLong();
+
+    private SharedDetectorPools() {
+    }
+
+    // Construction du pool au premier acquire() d'un modèle
+    public interface Factory {
+        DetectorPool create() throws IOException;
+    }
+
+    // Pool partagé et son nombre d'utilisateurs (protégés par BY_KEY)
+    private static class SharedPool {
+        final String key;
+        final Map<String, Object> attachments = new HashMap<>();
+        DetectorPool pool; // null tant que le premier agent le construit
+        int references = 0;
+
+        SharedPool(String key) {
+            this.key = key;
+        }
+    }
+
+    // Obtenir le pool du modèle, en le construisant s'il n'existe pas encore. À rendre par release().
+    public static DetectorPool acquire(ModelSpec spec, Factory factory) throws IOException {
+        String key = keyOf(spec);
+        SharedPool shared;
+        synchronized (BY_KEY) {
+            shared = BY_KEY.computeIfAbsent(key, SharedPool::new);
+            shared.references++;
+        }
+
+        // Construction hors du verrou du registre: d'autres modèles se chargent en parallèle,
+        // les agents qui demandent le même modèle attendent la fin de ce chargement
+        try {
+            synchronized (shared) {
+                DetectorPool pool;
+                synchronized (BY_KEY) {
+                    pool = shared.pool;
+                }
+                if (pool != null) {
+                    SHARED_COUNT.incrementAndGet();
+                    return pool;
+                }
+                pool = factory.create();
+                synchronized (BY_KEY) {
+                    shared.pool = pool;
+                    BY_POOL.put(pool, shared);
+                }
+                CREATED_COUNT.incrementAndGet();
+                return pool;
+            }
+        } catch (IOException | RuntimeException e) {
+            release(shared);
+            throw e;
+        }
+    }
+
+    // Rendre un pool: le dernier utilisateur le ferme. Un pool hors registre (détecteurs distants) est fermé.
+    public static void release(DetectorPool pool) {
+        SharedPool shared;
+        synchronized (BY_KEY) {
+            shared = BY_POOL.get(pool);
+        }
+        if (shared == null) {
+            pool.close();
+            return;
+        }
+        release(shared);
+    }
+
+    private static void release(SharedPool shared) {
+        DetectorPool closing = null;
+        synchronized (BY_KEY) {
+            if (--shared.references == 0) {
+                BY_KEY.remove(shared.key);
+                if (shared.pool != null) {
+                    BY_POOL.remove(shared.pool);
+                    closing = shared.pool;
+                }
+            }
+        }
+        // Arrêt des threads du pool hors du verrou du registre
+        if (closing != null) {
+            closing.close();
+        }
+    }
+
+    // État associé au pool et partagé par ses utilisateurs (ex: contrôleur de résolution),
+    // créé par le premier qui le demande. Pour un pool hors registre, créé à chaque appel.
+    @SuppressWarnings("unchecked")
+    public static <T> T attach(DetectorPool pool, String name, Supplier<T> factory) {
+        synchronized (BY_KEY) {
+            SharedPool shared = BY_POOL.get(pool);
+            if (shared == null) {
+                return factory.get();
+            }
+            return (T) shared.attachments.computeIfAbsent(name, ignored -> factory.get());
+        }
+    }
+
+    // Description du modèle au moment de la demande (backend "auto" compris, avant sa mesure)
+    private static String keyOf(ModelSpec spec) throws IOException {
+        return spec.getDecoder()
+                + "|" + new File(spec.getModelPath()).getCanonicalPath()
+                + "|" + (spec.getConfigPath() == null ? "" : new File(spec.getConfigPath()).getCanonicalPath())
+                + "|" + spec.getNamesPath()
+                + "|" + spec.getInputSize().width + "x" + spec.getInputSize().height
+                + "|" + spec.getScale() + "|" + Arrays.toString(spec.getMean().val) + "|" + spec.isSwapRB()
+                + "|" + spec.getBackend();
+    }
+
+    public static String getStatistics() {
+        int pools = 0;
+        int references = 0;
+        synchronized (BY_KEY) {
+            for (SharedPool shared : BY_KEY.values()) {
+                if (shared.pool != null) pools++;
+                references += shared.references;
+            }
+        }
+        return String.format("Pools partagés[pools=%d, utilisateurs=%d, chargés=%d, réutilisés=%d]",
+                pools, references, CREATED_COUNT.get(), SHARED_COUNT.get());
+    }
+}
@@ -0,0 +1,49 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+// Décodeur des sorties SSD (couche DetectionOutput [1, 1, N, 7]).
+// Chaque détection contient: [image_id, label, confidence, x_min, y_min, x_max, y_max].
+// Pour un lot, les détections de toutes les images partagent la sortie et sont filtrées par image_id.
+// Le label 0 (fond) n'apparaît pas dans le fichier de noms: la classe est label - 1.
+public class SsdDetector extends DnnDetector {
+
+    private static final int VALUES_PER_DETECTION = 7;
+    private float[] outputBuffer = new float[0]; // Réutilisé d'une image à l'autre
+
+    public SsdDetector(ModelSpec spec, ModelSession session, List<String> classNames) {
+        super(spec, session, classNames);
+    }
+
+    @Override
+    protected void decode(List<Mat> outputs, int image, int batchSize, int frameWidth, int frameHeight,
+                          float threshold, NonMaxSuppression candidates) {
+        if (outputs.isEmpty()) return;
+        Mat detections = outputs.get(0);
+
+        int size = (int) (detections.total() * detections.channels());
+        if (outputBuffer.length < size) {
+            outputBuffer = new float[size];
+        }
+        float[] data = outputBuffer;
+        detections.get(0, 0, data);
+
+        int count = size / VALUES_PER_DETECTION;
+        for (int i = 0; i < count; i++) {
+            int offset = i * VALUES_PER_DETECTION;
+            float confidence = data[offset + 2];
+
+            if (confidence > threshold && (batchSize == 1 || (int) data[offset] == image)) {
+                int classId = Math.max(0, (int) data[offset + 1] - 1);
+                int x1 = (int) (data[offset + 3] * frameWidth);
+                int y1 = (int) (data[offset + 4] * frameHeight);
+                int x2 = (int) (data[offset + 5] * frameWidth);
+                int y2 = (int) (data[offset + 6] * frameHeight);
+
+                candidates.add(classId, confidence, x1, y1, x2 - x1, y2 - y1);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Vision;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.Random;
+
+// Générateur d'images synthétiques déterministe: des formes colorées rebondissent sur un fond uni.
+// Sert à mesurer le débit du pipeline ou à tester sans caméra ni fichier.
+public class SyntheticFrameSource implements FrameSource {
+
+    private static final Scalar BACKGROUND = new Scalar(90, 90, 90);
+
+    private final int width;
+    private final int height;
+    private final FramePacer pacer;
+
+    // Formes en mouvement (position, vitesse en pixels par image, taille, couleur)
+    private final float[] xs, ys, speedsX, speedsY;
+    private final int[] sizes;
+    private final Scalar[] colors;
+
+    public SyntheticFrameSource(int width, int height, FramePacing pacing, double fps, int shapeCount) {
+        this.width = width;
+        this.height = height;
+        this.pacer = new FramePacer(pacing, fps);
+
+        Random random = new Random(42);
+        xs = new float[shapeCount];
+        ys = new float[shapeCount];
+        speedsX = new float[shapeCount];
+        speedsY = new float[shapeCount];
+        sizes = new int[shapeCount];
+        colors = new Scalar[shapeCount];
+        for (int i = 0; i < shapeCount; i++) {
+            sizes[i] = 30 + random.nextInt(90);
+            xs[i] = random.nextInt(Math.max(1, width - sizes[i]));
+            ys[i] = random.nextInt(Math.max(1, height - sizes[i]));
+            speedsX[i] = random.nextFloat() * 8 - 4;
+            speedsY[i] = random.nextFloat() * 8 - 4;
+            colors[i] = new Scalar(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "synthétique " + width + "x" + height;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return true;
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        pacer.await();
+
+        frame.create(height, width, CvType.CV_8UC3);
+        frame.setTo(BACKGROUND);
+        for (int i = 0; i < xs.length; i++) {
+            // Avancer et rebondir sur les bords
+            xs[i] += speedsX[i];
+            ys[i] += speedsY[i];
+            if (xs[i] < 0 || xs[i] + sizes[i] > width) speedsX[i] = -speedsX[i];
+            if (ys[i] < 0 || ys[i] + sizes[i] > height) speedsY[i] = -speedsY[i];
+
+            Imgproc.rectangle(frame, new Point(xs[i], ys[i]), new Point(xs[i] + sizes[i], ys[i] + sizes[i]),
+                    colors[i], Imgproc.FILLED);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isEnded() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,254 @@
+package Vision;
+
+import java.util.Arrays;
+
+// Publication par changements: compare les détections suivies d'une image au dernier état publié de
+// chaque piste et ne retient que les événements — piste apparue, piste déplacée (centre ou taille au-delà
+// de movePixels) ou dont la distance a changé de plus de distanceDelta, piste perdue (non revue depuis
+// lostAfterMs). Une image clé périodique (ou demandée) republie toutes les pistes pour les récepteurs
+// arrivés en cours de route. Tableaux primitifs réutilisés; une instance ne doit servir qu'à un seul thread.
+//
+// Les événements sont répartis par voie (PriorityLanes): ceux de la voie urgente sont publiés à chaque
+// image; ceux de la voie courante restent en attente (non publiés, donc recalculés et regroupés sur l'état
+// le plus récent) jusqu'à ce que sa fenêtre soit échue. La perte d'une piste suit la voie de sa dernière publication.
+// Utilisation par image: update(détections, horodatage, voies, voie courante échue), puis par voie
+// getAppeared(voie, k), getUpdated(voie, k), getLostTrackId(voie, k).
+public class TrackDeltaFilter {
+
+    private final int movePixels;
+    private final double distanceDelta;
+    private final long lostAfterMs;
+    private final long keyframeIntervalMs;
+
+    // Dernier état publié de chaque piste
+    private int publishedCount = 0;
+    private int[] trackIds = new int[32];
+    private int[] centerXs = new int[32];
+    private int[] centerYs = new int[32];
+    private int[] widths = new int[32];
+    private int[] heights = new int[32];
+    private double[] distances = new double[32];
+    private long[] lastSeen = new long[32];
+    private int[] lanes = new int[32];
+
+    // Événements de l'image courante, par voie (indices dans le lot, identifiants pour les pistes perdues)
+    private final int[] appearedCounts = new int[PriorityLanes.LANE_COUNT];
+    private final int[][] appeared = new int[PriorityLanes.LANE_COUNT][32];
+    private final int[] updatedCounts = new int[PriorityLanes.LANE_COUNT];
+    private final int[][] updated = new int[PriorityLanes.LANE_COUNT][32];
+    private final int[] lostCounts = new int[PriorityLanes.LANE_COUNT];
+    private final int[][] lost = new int[PriorityLanes.LANE_COUNT][32];
+    private int deferredCount = 0;
+
+    private boolean keyframe = false;
+    private long lastKeyframeTime = 0;
+    private volatile boolean keyframeRequested = true;
+
+    private long appearedTotal = 0;
+    private long updatedTotal = 0;
+    private long lostTotal = 0;
+    private long unchangedTotal = 0;
+    private long deferredTotal = 0;
+    private long keyframeTotal = 0;
+
+    public TrackDeltaFilter(int movePixels, double distanceDelta, long lostAfterMs, long keyframeIntervalMs) {
+        this.movePixels = movePixels;
+        this.distanceDelta = distanceDelta;
+        this.lostAfterMs = lostAfterMs;
+        this.keyframeIntervalMs = keyframeIntervalMs;
+    }
+
+    // Republier toutes les pistes à la prochaine publication de la voie courante (appelable depuis tout thread)
+    public void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    // Calculer les événements de l'image. 'priorities' null: tout passe par la voie courante.
+    // 'routineDue': la fenêtre de la voie courante est échue, ses événements en attente sont publiés.
+    // Retourne true s'il y a quelque chose à publier sur au moins une voie.
+    public boolean update(DetectionBatch detections, long timestamp, PriorityLanes priorities, boolean routineDue) {
+        Arrays.fill(appearedCounts, 0);
+        Arrays.fill(updatedCounts, 0);
+        Arrays.fill(lostCounts, 0);
+        deferredCount = 0;
+        keyframe = routineDue && (keyframeRequested || timestamp - lastKeyframeTime >= keyframeIntervalMs);
+        if (keyframe) {
+            keyframeRequested = false;
+            lastKeyframeTime = timestamp;
+            keyframeTotal++;
+        }
+
+        for (int i = 0; i < detections.size(); i++) {
+            int trackId = detections.getTrackId(i);
+            int lane = priorities == null ? PriorityLanes.ROUTINE : priorities.classify(detections, i);
+            int p = trackId < 0 ? -1 : indexOf(trackId);
+            boolean isNew = p < 0;
+            if (!isNew) {
+                lastSeen[p] = timestamp;
+            }
+            if (!isNew && !keyframe && !hasChanged(p, detections, i)) {
+                unchangedTotal++;
+                continue;
+            }
+            if (lane == PriorityLanes.ROUTINE && !routineDue) {
+                // Voie courante hors fenêtre: l'événement reste en attente
+                deferredCount++;
+                continue;
+            }
+
+            // Image clé: tout part dans le message de la voie courante, envoyé dans la même image,
+            // que le récepteur traite comme complet
+            int eventLane = keyframe ? PriorityLanes.ROUTINE : lane;
+            if (isNew) {
+                appeared[eventLane] = append(appeared[eventLane], appearedCounts[eventLane]++, i);
+                if (trackId < 0) continue; // Détection sans piste, publiée sans état
+                p = publishedCount++;
+                ensureCapacity(publishedCount);
+                trackIds[p] = trackId;
+                lastSeen[p] = timestamp;
+            } else {
+                updated[eventLane] = append(updated[eventLane], updatedCounts[eventLane]++, i);
+            }
+            store(p, detections, i);
+            lanes[p] = lane;
+        }
+
+        // Pistes disparues depuis trop longtemps (retirées en échangeant avec la dernière)
+        for (int p = publishedCount - 1; p >= 0; p--) {
+            if (timestamp - lastSeen[p] > lostAfterMs) {
+                int lane = lanes[p];
+                if (lane == PriorityLanes.ROUTINE && !routineDue) {
+                    deferredCount++;
+                    continue;
+                }
+                lost[lane] = append(lost[lane], lostCounts[lane]++, trackIds[p]);
+                removeAt(p);
+            }
+        }
+
+        int events = 0;
+        for (int lane = 0; lane < PriorityLanes.LANE_COUNT; lane++) {
+            appearedTotal += appearedCounts[lane];
+            updatedTotal += updatedCounts[lane];
+            lostTotal += lostCounts[lane];
+            events += appearedCounts[lane] + updatedCounts[lane] + lostCounts[lane];
+        }
+        deferredTotal += deferredCount;
+        return keyframe || events > 0;
+    }
+
+    private boolean hasChanged(int p, DetectionBatch detections, int i) {
+        int width = detections.getWidth(i);
+        int height = detections.getHeight(i);
+        if (Math.abs(detections.getX(i) + width / 2 - centerXs[p]) > movePixels
+                || Math.abs(detections.getY(i) + height / 2 - centerYs[p]) > movePixels
+                || Math.abs(width - widths[p]) > movePixels
+                || Math.abs(height - heights[p]) > movePixels) {
+            return true;
+        }
+        double distance = detections.getDistance(i);
+        double previous = distances[p];
+        if (Double.isInfinite(distance) || Double.isInfinite(previous)) {
+            return Double.isInfinite(distance) != Double.isInfinite(previous);
+        }
+        return Math.abs(distance - previous) > distanceDelta;
+    }
+
+    private void store(int p, DetectionBatch detections, int i) {
+        widths[p] = detections.getWidth(i);
+        heights[p] = detections.getHeight(i);
+        centerXs[p] = detections.getX(i) + widths[p] / 2;
+        centerYs[p] = detections.getY(i) + heights[p] / 2;
+        distances[p] = detections.getDistance(i);
+    }
+
+    private int indexOf(int trackId) {
+        for (int p = 0; p < publishedCount; p++) {
+            if (trackIds[p] == trackId) return p;
+        }
+        return -1;
+    }
+
+    private void removeAt(int p) {
+        int last = --publishedCount;
+        trackIds[p] = trackIds[last];
+        centerXs[p] = centerXs[last];
+        centerYs[p] = centerYs[last];
+        widths[p] = widths[last];
+        heights[p] = heights[last];
+        distances[p] = distances[last];
+        lastSeen[p] = lastSeen[last];
+        lanes[p] = lanes[last];
+    }
+
+    private static int[] append(int[] values, int count, int value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count] = value;
+        return values;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= trackIds.length) return;
+        int size = Math.max(capacity, trackIds.length * 2);
+        trackIds = Arrays.copyOf(trackIds, size);
+        centerXs = Arrays.copyOf(centerXs, size);
+        centerYs = Arrays.copyOf(centerYs, size);
+        widths = Arrays.copyOf(widths, size);
+        heights = Arrays.copyOf(heights, size);
+        distances = Arrays.copyOf(distances, size);
+        lastSeen = Arrays.copyOf(lastSeen, size);
+        lanes = Arrays.copyOf(lanes, size);
+    }
+
+    // Image clé: les apparues + modifiées de la voie courante couvrent toutes les détections de l'image
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    // Événements d'une voie à publier pour cette image
+    public boolean hasEvents(int lane) {
+        return appearedCounts[lane] > 0 || updatedCounts[lane] > 0 || lostCounts[lane] > 0
+                || (keyframe && lane == PriorityLanes.ROUTINE);
+    }
+
+    // Événements de la voie courante laissés en attente à cette image
+    public int getDeferredCount() {
+        return deferredCount;
+    }
+
+    public int getAppearedCount(int lane) {
+        return appearedCounts[lane];
+    }
+
+    public int getAppeared(int lane, int k) {
+        return appeared[lane][k];
+    }
+
+    public int getUpdatedCount(int lane) {
+        return updatedCounts[lane];
+    }
+
+    public int getUpdated(int lane, int k) {
+        return updated[lane][k];
+    }
+
+    public int getLostCount(int lane) {
+        return lostCounts[lane];
+    }
+
+    public int getLostTrackId(int lane, int k) {
+        return lost[lane][k];
+    }
+
+    public int getPublishedCount() {
+        return publishedCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("événements[apparues=%d, modifiées=%d, perdues=%d, inchangées=%d, en attente=%d, images clés=%d, publiées=%d]",
+                appearedTotal, updatedTotal, lostTotal, unchangedTotal, deferredTotal, keyframeTotal, publishedCount);
+    }
+}
@@ -0,0 +1,115 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Composant d'affichage vidéo à double tampon.
+// L'étage de rendu copie chaque image directement dans le raster du tampon arrière (une seule copie
+// native -> Java, aucune allocation), puis l'échange avec le tampon avant. Un seul repaint est en
+// attente à la fois et au plus un par intervalle d'affichage (Swing ignore le délai de repaint(tm):
+// une image arrivée avant la fin de l'intervalle est peinte par une minuterie à l'échéance). Si la
+// peinture est plus lente que la capture, les images intermédiaires sont simplement écrasées.
+public class VideoDisplay extends JComponent {
+
+    private static final long FRAME_INTERVAL_MS = 16; // ~60 Hz
+
+    private final Object swapLock = new Object();
+    private final BufferedImage[] buffers = new BufferedImage[2];
+    private int frontIndex = 0;          // Tampon peint par l'EDT (protégé par swapLock)
+    private boolean hasFrame = false;
+
+    private final AtomicBoolean repaintPending = new AtomicBoolean(false);
+    private volatile long lastPaintMs = 0;
+    private final AtomicLong presentedCount = new AtomicLong();
+    private final AtomicLong paintedCount = new AtomicLong();
+    private final Timer deferredRepaint;
+
+    public VideoDisplay(int width, int height) {
+        setPreferredSize(new Dimension(width, height));
+        setBackground(Color.BLACK);
+        setOpaque(true);
+        deferredRepaint = new Timer((int) FRAME_INTERVAL_MS, e -> repaint());
+        deferredRepaint.setRepeats(false);
+    }
+
+    // Publier une image (thread de rendu). Le contenu de la Mat est copié: elle peut être libérée ensuite.
+    public void present(Mat frame) {
+        int type = frame.channels() > 1 ? BufferedImage.TYPE_3BYTE_BGR : BufferedImage.TYPE_BYTE_GRAY;
+        int backIndex;
+        synchronized (swapLock) {
+            backIndex = 1 - frontIndex;
+        }
+
+        // Le tampon arrière n'est jamais lu par l'EDT: on peut l'écrire hors verrou
+        BufferedImage back = buffers[backIndex];
+        if (back == null || back.getWidth() != frame.cols() || back.getHeight() != frame.rows() || back.getType() != type) {
+            back = new BufferedImage(frame.cols(), frame.rows(), type);
+            buffers[backIndex] = back;
+        }
+        frame.get(0, 0, ((DataBufferByte) back.getRaster().getDataBuffer()).getData());
+
+        synchronized (swapLock) {
+            frontIndex = backIndex;
+            hasFrame = true;
+        }
+        presentedCount.incrementAndGet();
+
+        // Un seul repaint en attente: les images suivantes remplacent simplement le tampon avant
+        if (repaintPending.compareAndSet(false, true)) {
+            long remaining = FRAME_INTERVAL_MS - (System.currentTimeMillis() - lastPaintMs);
+            if (remaining <= 0) {
+                repaint();
+            } else {
+                // Dans l'intervalle de la dernière peinture: différer jusqu'à son échéance
+                deferredRepaint.setInitialDelay((int) remaining);
+                deferredRepaint.restart();
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        repaintPending.set(false);
+        lastPaintMs = System.currentTimeMillis();
+
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        // Le verrou empêche l'échange (et donc la réécriture de ce tampon) pendant la peinture
+        synchronized (swapLock) {
+            if (!hasFrame) return;
+            BufferedImage image = buffers[frontIndex];
+            int x = (getWidth() - image.getWidth()) / 2;
+            int y = (getHeight() - image.getHeight()) / 2;
+            g.drawImage(image, x, y, null);
+        }
+        paintedCount.incrementAndGet();
+    }
+
+    // Copie de l'image affichée (capture d'écran), ou null si aucune image n'a encore été reçue
+    public BufferedImage snapshot() {
+        synchronized (swapLock) {
+            if (!hasFrame) return null;
+            BufferedImage image = buffers[frontIndex];
+            BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+            copy.setData(image.getRaster());
+            return copy;
+        }
+    }
+
+    // Images reçues mais jamais peintes (remplacées par une plus récente)
+    public long getDroppedCount() {
+        return Math.max(0, presentedCount.get() - paintedCount.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("affichage[reçues=%d, peintes=%d]", presentedCount.get(), paintedCount.get());
+    }
+}
@@ -0,0 +1,86 @@
+package Vision;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+// Source VideoCapture: webcam (index), fichier vidéo ou flux réseau (URL rtsp://, http://...).
+// Une caméra ou un flux réseau impose déjà son rythme; un fichier est cadencé selon FramePacing
+// et peut être relu en boucle.
+public class VideoFrameSource implements FrameSource {
+
+    private static final double DEFAULT_FPS = 25;
+
+    private final String name;
+    private final VideoCapture capture;
+    private final boolean recorded;   // Fichier local: fini, cadencé, rembobinable
+    private final boolean loop;
+    private final FramePacer pacer;
+    private boolean ended = false;
+
+    // Webcam d'indice donné, à la résolution demandée
+    public VideoFrameSource(int cameraIndex, int width, int height) {
+        this.name = "caméra " + cameraIndex;
+        this.capture = new VideoCapture(cameraIndex);
+        this.recorded = false;
+        this.loop = false;
+        this.pacer = new FramePacer(FramePacing.FAST, DEFAULT_FPS);
+        if (capture.isOpened()) {
+            capture.set(Videoio.CAP_PROP_FRAME_WIDTH, width);
+            capture.set(Videoio.CAP_PROP_FRAME_HEIGHT, height);
+        }
+    }
+
+    // Fichier vidéo ou URL de flux
+    public VideoFrameSource(String uri, FramePacing pacing, boolean loop) {
+        this.name = uri;
+        this.capture = new VideoCapture(uri);
+        this.recorded = !uri.contains("://");
+        this.loop = loop && recorded;
+
+        double fps = capture.isOpened() ? capture.get(Videoio.CAP_PROP_FPS) : 0;
+        this.pacer = new FramePacer(recorded ? pacing : FramePacing.FAST, fps > 0 ? fps : DEFAULT_FPS);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return capture.isOpened();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        if (ended) return false;
+        pacer.await();
+
+        if (capture.read(frame) && !frame.empty()) {
+            return true;
+        }
+
+        if (recorded) {
+            if (loop) {
+                // Rembobiner et relire la première image
+                capture.set(Videoio.CAP_PROP_POS_FRAMES, 0);
+                return capture.read(frame) && !frame.empty();
+            }
+            ended = true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEnded() {
+        return ended;
+    }
+
+    @Override
+    public void close() {
+        if (capture.isOpened()) {
+            capture.release();
+        }
+    }
+}
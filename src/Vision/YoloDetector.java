@@ -0,0 +1,89 @@
+package Vision;
+
+import org.opencv.core.Mat;
+
+import java.util.List;
+
+// Décodeur des sorties YOLO.
+// - Darknet: coordonnées normalisées sur [0, 1], scores de classe déjà multipliés par l'objectness.
+// - ONNX (export type YOLOv5 [1, N, 5 + classes]): coordonnées en pixels de l'entrée du réseau,
+//   scores de classe bruts à multiplier par l'objectness.
+public class YoloDetector extends DnnDetector {
+
+    private final boolean darknetLayout;
+    private float[] outputBuffer = new float[0]; // Réutilisé d'une image à l'autre
+
+    public YoloDetector(ModelSpec spec, ModelSession session, List<String> classNames) {
+        super(spec, session, classNames);
+        this.darknetLayout = spec.getFormat() == ModelFormat.DARKNET;
+    }
+
+    @Override
+    protected void decode(List<Mat> outputs, int image, int batchSize, int frameWidth, int frameHeight,
+                          float threshold, NonMaxSuppression candidates) {
+        for (Mat level : outputs) {
+            decodeLevel(level, image, batchSize, frameWidth, frameHeight, threshold, candidates);
+        }
+    }
+
+    // Décoder la part d'une image dans une sortie, en une seule copie JNI vers le tampon réutilisé.
+    // Dans un lot, les lignes des images se suivent: l'image i occupe la i-ème tranche de lignes.
+    private void decodeLevel(Mat level, int image, int batchSize, int frameWidth, int frameHeight,
+                             float threshold, NonMaxSuppression candidates) {
+        int cols = level.dims() > 2 ? level.size(level.dims() - 1) : level.cols();
+        if (cols <= 5) return;
+        int totalRows = (int) level.total() / cols;
+        int rows = totalRows / batchSize;
+        if (rows == 0) return;
+        int size = rows * cols;
+
+        if (outputBuffer.length < size) {
+            outputBuffer = new float[size];
+        }
+        float[] data = outputBuffer;
+
+        // [N, R, C] → vue 2D (N x R) x C, puis tranche des lignes de l'image (sans copie)
+        Mat view = level.dims() > 2 ? MatPool.register(level.reshape(1, totalRows)) : level;
+        Mat slice = batchSize > 1 ? MatPool.register(view.rowRange(image * rows, (image + 1) * rows)) : view;
+        slice.get(0, 0, data);
+        if (slice != view) MatPool.release(slice);
+        if (view != level) MatPool.release(view);
+
+        // Échelle des coordonnées vers l'image d'origine
+        double scaleX = darknetLayout ? frameWidth : (double) frameWidth / session.getInputSize().width;
+        double scaleY = darknetLayout ? frameHeight : (double) frameHeight / session.getInputSize().height;
+
+        for (int i = 0; i < rows; ++i) {
+            int offset = i * cols;
+
+            // Filtre rapide: le score final ne peut jamais dépasser l'objectness
+            float objectness = data[offset + 4];
+            if (objectness <= threshold) continue;
+
+            // Recherche du meilleur score (premier maximum, comme Core.minMaxLoc)
+            int classId = 0;
+            float confidence = data[offset + 5];
+            for (int c = offset + 6, end = offset + cols; c < end; ++c) {
+                if (data[c] > confidence) {
+                    confidence = data[c];
+                    classId = c - offset - 5;
+                }
+            }
+            if (!darknetLayout) {
+                confidence *= objectness;
+            }
+
+            if (confidence > threshold) {
+                // Obtenir les coordonnées de la boîte englobante
+                int centerX = (int) ((double) data[offset] * scaleX);
+                int centerY = (int) ((double) data[offset + 1] * scaleY);
+                int width = (int) ((double) data[offset + 2] * scaleX);
+                int height = (int) ((double) data[offset + 3] * scaleY);
+                int x = centerX - width / 2;
+                int y = centerY - height / 2;
+
+                candidates.add(classId, confidence, x, y, width, height);
+            }
+        }
+    }
+}